@@ -23,6 +23,7 @@ import com.google.common.collect.Sets;
 import org.sonar.check.Rule;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.cfg.LiveVariables;
+import org.sonar.java.model.declaration.MethodTreeImpl;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
@@ -62,8 +63,8 @@ public class ParameterReassignedToCheck extends BaseTreeVisitor implements JavaF
     if(block == null) {
       return;
     }
-    CFG cfg = CFG.build(tree);
-    LiveVariables analyze = LiveVariables.analyze(cfg);
+    CFG cfg = ((MethodTreeImpl) tree).cfg();
+    LiveVariables analyze = ((MethodTreeImpl) tree).liveVariables();
     Set<Symbol> live = analyze.getIn(cfg.entryBlock());
     for (VariableTree parameterTree : tree.parameters()) {
       if(!live.contains(parameterTree.symbol())) {
@@ -24,6 +24,7 @@ import org.sonar.check.Rule;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.cfg.LiveVariables;
 import org.sonar.java.model.ExpressionUtils;
+import org.sonar.java.model.declaration.MethodTreeImpl;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Symbol.TypeSymbol;
@@ -86,8 +87,8 @@ public class PrivateFieldUsedLocallyCheck extends IssuableSubscriptionVisitor {
   }
 
   private static boolean isLiveInMethodEntry(Symbol privateFieldSymbol, MethodTree methodTree) {
-    CFG cfg = CFG.build(methodTree);
-    LiveVariables liveVariables = LiveVariables.analyzeWithFields(cfg);
+    CFG cfg = ((MethodTreeImpl) methodTree).cfg();
+    LiveVariables liveVariables = ((MethodTreeImpl) methodTree).liveVariablesWithFields();
     return liveVariables.getIn(cfg.entryBlock()).contains(privateFieldSymbol);
   }
 
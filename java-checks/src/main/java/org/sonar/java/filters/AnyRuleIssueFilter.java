@@ -19,13 +19,12 @@
  */
 package org.sonar.java.filters;
 
-import com.google.common.collect.ContiguousSet;
-import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Range;
-import java.util.HashSet;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
 import java.util.List;
 import java.util.Set;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -37,7 +36,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Set<Integer> excludedLines = new HashSet<>();
+  private final RangeSet<Integer> excludedLines = TreeRangeSet.create();
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
@@ -52,7 +51,12 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    return !(issue.componentKey().equals(componentKey) && excludedLines.contains(issue.line()));
+    return !(issue.componentKey().equals(componentKey) && BaseTreeVisitorIssueFilter.isExcluded(issue.line(), excludedLines));
+  }
+
+  @Override
+  public boolean isSuppressed(RuleKey ruleKey, int line) {
+    return excludedLines.contains(line);
   }
 
   @Override
@@ -61,10 +65,6 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
   }
 
   public void excludeLines(Tree tree) {
-    excludedLines.addAll(filteredLines(tree));
-  }
-
-  private static Set<Integer> filteredLines(Tree tree) {
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
@@ -77,8 +77,7 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
         startLine = trivias.get(0).startLine();
       }
 
-      return ContiguousSet.create(Range.closed(startLine, endLine), DiscreteDomain.integers());
+      excludedLines.add(BaseTreeVisitorIssueFilter.lines(startLine, endLine));
     }
-    return new HashSet<>();
   }
 }
@@ -19,13 +19,12 @@
  */
 package org.sonar.java.filters;
 
-import com.google.common.collect.ContiguousSet;
-import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
 
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.check.Rule;
@@ -37,17 +36,18 @@ import org.sonar.plugins.java.api.tree.Tree;
 
 import javax.annotation.Nullable;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
 public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Multimap<String, Integer> excludedLinesByRule;
+  private final Map<String, RangeSet<Integer>> excludedLinesByRule;
   private final Map<Class<? extends JavaCheck>, String> rulesKeysByRulesClass;
 
   public BaseTreeVisitorIssueFilter() {
-    excludedLinesByRule = HashMultimap.create();
+    excludedLinesByRule = new HashMap<>();
     rulesKeysByRulesClass = rulesKeysByRulesClass(filteredRules());
   }
 
@@ -79,10 +79,27 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    return !(issue.componentKey().equals(componentKey) && excludedLinesByRule.get(issue.ruleKey().rule()).contains(issue.line()));
+    if (!issue.componentKey().equals(componentKey)) {
+      return true;
+    }
+    RangeSet<Integer> excludedLines = excludedLinesByRule.get(issue.ruleKey().rule());
+    return excludedLines == null || !isExcluded(issue.line(), excludedLines);
   }
 
-  public Multimap<String, Integer> excludedLinesByRule() {
+  @Override
+  public boolean isSuppressed(RuleKey ruleKey, int line) {
+    RangeSet<Integer> excludedLines = excludedLinesByRule.get(ruleKey.rule());
+    return excludedLines != null && excludedLines.contains(line);
+  }
+
+  static boolean isExcluded(@Nullable Integer line, RangeSet<Integer> excludedLines) {
+    return line != null && excludedLines.contains(line);
+  }
+
+  /**
+   * Excluded lines of the current file by rule key. Lines are kept as ranges, so excluding a large tree costs a single range.
+   */
+  public Map<String, RangeSet<Integer>> excludedLinesByRule() {
     return excludedLinesByRule;
   }
 
@@ -102,8 +119,8 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
     }
   }
 
-  public void excludeLines(Set<Integer> lines, String ruleKey) {
-    computeFilteredLinesForRule(lines, ruleKey, true);
+  public void excludeLines(int startLine, int endLine, String ruleKey) {
+    computeFilteredLinesForRule(lines(startLine, endLine), ruleKey, true);
   }
 
   public void excludeLines(@Nullable Tree tree, Class<? extends JavaCheck> rule) {
@@ -117,16 +134,26 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
-      Set<Integer> filteredlines = ContiguousSet.create(Range.closed(firstSyntaxToken.line(), lastSyntaxToken.line()), DiscreteDomain.integers());
-      computeFilteredLinesForRule(filteredlines, rulesKeysByRulesClass.get(filteredRule), excludeLine);
+      Range<Integer> filteredLines = lines(firstSyntaxToken.line(), lastSyntaxToken.line());
+      computeFilteredLinesForRule(filteredLines, rulesKeysByRulesClass.get(filteredRule), excludeLine);
     }
   }
 
-  private void computeFilteredLinesForRule(Set<Integer> lines, String ruleKey, boolean excludeLine) {
+  private void computeFilteredLinesForRule(Range<Integer> lines, String ruleKey, boolean excludeLine) {
     if (excludeLine) {
-      excludedLinesByRule.putAll(ruleKey, lines);
+      excludedLinesByRule.computeIfAbsent(ruleKey, k -> TreeRangeSet.create()).add(lines);
     } else {
-      excludedLinesByRule.get(ruleKey).removeAll(lines);
+      RangeSet<Integer> excludedLines = excludedLinesByRule.get(ruleKey);
+      if (excludedLines != null) {
+        excludedLines.remove(lines);
+      }
     }
   }
+
+  /**
+   * Lines from startLine to endLine, both included. Ranges are closed-open so that ranges of consecutive lines are merged.
+   */
+  static Range<Integer> lines(int startLine, int endLine) {
+    return Range.closedOpen(startLine, endLine + 1);
+  }
 }
@@ -21,6 +21,9 @@ package org.sonar.java.filters;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import java.io.File;
+import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
@@ -38,6 +41,8 @@ public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueF
     new GeneratedCodeFilter());
   private Iterable<JavaIssueFilter> issueFilers;
   private final FileSystem fileSystem;
+  @Nullable
+  private File scannedFile;
 
   public PostAnalysisIssueFilter(FileSystem fileSystem) {
     this.fileSystem = fileSystem;
@@ -66,6 +71,19 @@ public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueF
     return chain.accept(issue);
   }
 
+  @Override
+  public boolean isSuppressed(File file, RuleKey ruleKey, int line) {
+    if (!file.equals(scannedFile)) {
+      return false;
+    }
+    for (JavaIssueFilter javaIssueFilter : getIssueFilters()) {
+      if (javaIssueFilter.isSuppressed(ruleKey, line)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public void scanFile(JavaFileScannerContext context) {
     InputFile component = fileSystem.inputFile(fileSystem.predicates().is(context.getFile()));
@@ -73,6 +91,7 @@ public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueF
       throw new AnalysisException("Component not found: " + context.getFileKey());
     }
     String componentKey = component.key();
+    scannedFile = context.getFile();
     for (JavaIssueFilter javaIssueFilter : getIssueFilters()) {
       javaIssueFilter.setComponentKey(componentKey);
       javaIssueFilter.scanFile(context);
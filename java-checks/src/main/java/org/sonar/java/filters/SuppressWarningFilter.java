@@ -19,18 +19,15 @@
  */
 package org.sonar.java.filters;
 
-import com.google.common.collect.ContiguousSet;
-import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Range;
-import java.util.Collection;
+import com.google.common.collect.RangeSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.Nullable;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.utils.AnnotationUtils;
@@ -50,7 +47,7 @@ import org.sonar.plugins.java.api.tree.VariableTree;
 
 public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
 
-  private final Map<String, Multimap<String, Integer>> excludedLinesByComponent = new HashMap<>();
+  private final Map<String, Map<String, RangeSet<Integer>>> excludedLinesByComponent = new HashMap<>();
 
   private static final String SUPPRESS_WARNING_RULE_KEY = getSuppressWarningRuleKey();
 
@@ -66,26 +63,27 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
   @Override
   public void scanFile(JavaFileScannerContext context) {
     super.scanFile(context);
-    excludedLinesByComponent.put(getComponentKey(), HashMultimap.create(excludedLinesByRule()));
+    // range sets of a file are not modified once scanned: scanning the next file starts from new ones
+    excludedLinesByComponent.put(getComponentKey(), new HashMap<>(excludedLinesByRule()));
   }
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    Multimap<String, Integer> excludedLinesByRule = HashMultimap.create();
-    if (excludedLinesByComponent.containsKey(issue.componentKey())) {
-      excludedLinesByRule = excludedLinesByComponent.get(issue.componentKey());
-    }
-    return !issueShouldNotBeReported(issue, excludedLinesByRule);
+    Map<String, RangeSet<Integer>> excludedLinesByRule = excludedLinesByComponent.getOrDefault(issue.componentKey(), Collections.emptyMap());
+    return !issueShouldNotBeReported(issue.ruleKey(), issue.line(), excludedLinesByRule);
+  }
+
+  @Override
+  public boolean isSuppressed(RuleKey ruleKey, int line) {
+    return issueShouldNotBeReported(ruleKey, line, excludedLinesByRule());
   }
 
-  private static boolean issueShouldNotBeReported(FilterableIssue issue, Multimap<String, Integer> excludedLineByRule) {
-    RuleKey issueRuleKey = issue.ruleKey();
-    for (String excludedRule : excludedLineByRule.keySet()) {
-      if (("all".equals(excludedRule) || isRuleKey(excludedRule, issueRuleKey)) && !isSuppressWarningRule(issueRuleKey)) {
-        Collection<Integer> excludedLines = excludedLineByRule.get(excludedRule);
-        if (excludedLines.contains(issue.line())) {
-          return true;
-        }
+  private static boolean issueShouldNotBeReported(RuleKey issueRuleKey, @Nullable Integer line, Map<String, RangeSet<Integer>> excludedLineByRule) {
+    for (Map.Entry<String, RangeSet<Integer>> entry : excludedLineByRule.entrySet()) {
+      String excludedRule = entry.getKey();
+      if (("all".equals(excludedRule) || isRuleKey(excludedRule, issueRuleKey)) && !isSuppressWarningRule(issueRuleKey)
+        && isExcluded(line, entry.getValue())) {
+        return true;
       }
     }
     return false;
@@ -135,9 +133,8 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
 
     if (startLine != -1) {
       int endLine = tree.lastToken().line();
-      Set<Integer> filteredlines = ContiguousSet.create(Range.closed(startLine, endLine), DiscreteDomain.integers());
       for (String rule : rules) {
-        excludeLines(filteredlines, rule);
+        excludeLines(startLine, endLine, rule);
       }
     }
   }
@@ -38,7 +38,7 @@ public class ParsingErrorCheckTest {
   @Test
   public void test() {
     SonarComponents sonarComponents = mock(SonarComponents.class);
-    when(sonarComponents.fileContent(any())).thenCallRealMethod();
+    when(sonarComponents.readFileContent(any(File.class))).thenCallRealMethod();
     when(sonarComponents.fileLength(any())).thenCallRealMethod();
 
     VisitorsBridgeForTests visitorsBridge = new VisitorsBridgeForTests(new ParsingErrorCheck(), sonarComponents);
@@ -20,7 +20,8 @@
 package org.sonar.java.filters;
 
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
 
 import org.assertj.core.api.AbstractBooleanAssert;
 import org.junit.Before;
@@ -33,6 +34,8 @@ import org.sonar.java.model.VisitorsBridgeForTests;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 import javax.annotation.Nullable;
@@ -40,6 +43,7 @@ import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -99,11 +103,40 @@ public class BaseTreeVisitorIssueFilterTest {
 
   @Test
   public void excluded_lines_are_correct() {
-    Multimap<String, Integer> excludedLinesByRule = filter.excludedLinesByRule();
+    Map<String, RangeSet<Integer>> excludedLinesByRule = filter.excludedLinesByRule();
     assertThat(excludedLinesByRule).isNotNull();
     assertThat(excludedLinesByRule.isEmpty()).isFalse();
     assertThat(excludedLinesByRule.keySet()).containsOnly(RULE_KEY);
-    assertThat(excludedLinesByRule.get(RULE_KEY)).containsOnly(3, 4, 5, 6, 7, 8, 9, 10, 11, 15);
+    // consecutive lines are merged into a single range
+    assertThat(excludedLinesByRule.get(RULE_KEY).asRanges()).containsExactly(Range.closedOpen(3, 12), Range.closedOpen(15, 16));
+  }
+
+  @Test
+  public void accepted_lines_split_excluded_ranges() {
+    filter.excludeLines(100, 5_000, RULE_KEY);
+    Tree tree = mock(Tree.class);
+    SyntaxToken firstToken = mock(SyntaxToken.class);
+    when(firstToken.line()).thenReturn(200);
+    SyntaxToken lastToken = mock(SyntaxToken.class);
+    when(lastToken.line()).thenReturn(300);
+    when(tree.firstToken()).thenReturn(firstToken);
+    when(tree.lastToken()).thenReturn(lastToken);
+    filter.acceptLines(tree, FakeRule.class);
+    assertThat(filter.excludedLinesByRule().get(RULE_KEY).asRanges())
+      .containsExactly(Range.closedOpen(3, 12), Range.closedOpen(15, 16), Range.closedOpen(100, 200), Range.closedOpen(301, 5_001));
+    assertThatIssueWillBeAccepted(199).isFalse();
+    assertThatIssueWillBeAccepted(250).isTrue();
+    assertThatIssueWillBeAccepted(5_000).isFalse();
+    assertThatIssueWillBeAccepted(5_001).isTrue();
+
+    filter.excludeLines(12, 14, RULE_KEY);
+    assertThat(filter.excludedLinesByRule().get(RULE_KEY).asRanges()).startsWith(Range.closedOpen(3, 16));
+    assertThatIssueWillBeAccepted(13).isFalse();
+
+    filter.excludeLines(1, 1, "OtherRule");
+    when(issue.ruleKey()).thenReturn(RuleKey.of(REPOSITORY_KEY, "OtherRule"));
+    assertThatIssueWillBeAccepted(1).isFalse();
+    assertThatIssueWillBeAccepted(null).isTrue();
   }
 
   @Test
@@ -118,7 +151,7 @@ public class BaseTreeVisitorIssueFilterTest {
     // no component is set
     scanFile(filter);
 
-    Multimap<String, Integer> excludedLinesByRule = filter.excludedLinesByRule();
+    Map<String, RangeSet<Integer>> excludedLinesByRule = filter.excludedLinesByRule();
     assertThat(excludedLinesByRule).isNotNull();
     assertThat(excludedLinesByRule.isEmpty()).isTrue();
   }
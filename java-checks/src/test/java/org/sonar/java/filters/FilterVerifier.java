@@ -81,6 +81,13 @@ public class FilterVerifier {
       when(issue.componentKey()).thenReturn(filename);
       when(issue.line()).thenReturn(issueLine);
 
+      if (issueLine != null) {
+        // issues are suppressed before being reported exactly when they would be rejected afterwards
+        assertThat(filter.isSuppressed(issue.ruleKey(), issueLine))
+          .overridingErrorMessage("Issue of rule '" + ruleKey + "' on line #" + issueLine + " is not suppressed the same way it is filtered!")
+          .isEqualTo(!filter.accept(issue));
+      }
+
       if (issueCollector.rejectedIssuesLines.contains(issueLine)) {
 
         assertThat(filter.accept(issue))
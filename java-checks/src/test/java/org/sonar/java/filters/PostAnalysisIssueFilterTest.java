@@ -31,6 +31,7 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilterChain;
 import org.sonar.java.AnalysisException;
@@ -104,6 +105,19 @@ public class PostAnalysisIssueFilterTest {
     }
   }
 
+  @Test
+  public void issues_are_suppressed_on_the_scanned_file_only() {
+    RuleKey ruleKey = RuleKey.of("squid", "S42");
+    File file = context.getFile();
+    postAnalysisIssueFilter.setIssueFilters(Lists.newArrayList(new FakeJavaIssueFilter(true)));
+    postAnalysisIssueFilter.scanFile(context);
+    assertThat(postAnalysisIssueFilter.isSuppressed(file, ruleKey, 1)).isFalse();
+
+    postAnalysisIssueFilter.setIssueFilters(ISSUE_FILTERS);
+    assertThat(postAnalysisIssueFilter.isSuppressed(file, ruleKey, 1)).isTrue();
+    assertThat(postAnalysisIssueFilter.isSuppressed(new File("Other.java"), ruleKey, 1)).isFalse();
+  }
+
   @Test
   public void missing_component_trigger_Exception() {
     thrown.expect(AnalysisException.class);
@@ -139,6 +153,11 @@ public class PostAnalysisIssueFilterTest {
       return accepted;
     }
 
+    @Override
+    public boolean isSuppressed(RuleKey ruleKey, int line) {
+      return !accepted;
+    }
+
     @Override
     public Set<Class<? extends JavaCheck>> filteredRules() {
       return null;
@@ -0,0 +1,144 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Base of the benchmarks running on a fixed set of source files. One operation processes all the files of the corpus.
+ * The corpus defaults to sources of this repository, and can be changed with "-p sources=&lt;directory&gt;", for
+ * instance to a project of its/sources. Libraries of the corpus can be given with "-p classpath=&lt;jars&gt;".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class CorpusBenchmark {
+
+  @Param("../java-frontend/src/main/java/org/sonar/java/se")
+  public String sources;
+
+  @Param("")
+  public String classpath;
+
+  protected List<File> files;
+  protected List<File> libraries;
+  protected List<String> contents;
+  protected SquidClassLoader classLoader;
+  protected ActionParser<Tree> parser;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    loadCorpus();
+    prepare();
+  }
+
+  /**
+   * Builds, once per trial, what the benchmark needs on top of the files of the corpus.
+   */
+  protected void prepare() {
+    // nothing by default
+  }
+
+  private void loadCorpus() throws IOException {
+    try (Stream<Path> paths = Files.walk(Paths.get(sources))) {
+      files = paths
+        .filter(path -> path.toString().endsWith(".java"))
+        .sorted()
+        .map(Path::toFile)
+        .collect(Collectors.toList());
+    }
+    if (files.isEmpty()) {
+      throw new IllegalStateException("No java file found in " + new File(sources).getAbsolutePath());
+    }
+    contents = new ArrayList<>(files.size());
+    for (File file : files) {
+      contents.add(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+    libraries = classpath.isEmpty() ? new ArrayList<>() : Arrays.stream(classpath.split(File.pathSeparator)).map(File::new).collect(Collectors.toList());
+    classLoader = new SquidClassLoader(libraries);
+    parser = JavaParser.createParser();
+  }
+
+  @TearDown(Level.Trial)
+  public void closeClassLoader() {
+    classLoader.close();
+  }
+
+  protected List<CompilationUnitTree> parseAll() {
+    return contents.stream().map(content -> (CompilationUnitTree) parser.parse(content)).collect(Collectors.toList());
+  }
+
+  protected List<SemanticModel> semanticModels(List<CompilationUnitTree> trees) {
+    return trees.stream().map(tree -> SemanticModel.createFor(tree, classLoader)).collect(Collectors.toList());
+  }
+
+  protected static List<MethodTree> methodsWithBody(CompilationUnitTree tree) {
+    MethodCollector collector = new MethodCollector();
+    tree.accept(collector);
+    return collector.methods;
+  }
+
+  private static class MethodCollector extends BaseTreeVisitor {
+    private final List<MethodTree> methods = new ArrayList<>();
+
+    @Override
+    public void visitMethod(MethodTree tree) {
+      if (tree.block() != null) {
+        methods.add(tree);
+      }
+      super.visitMethod(tree);
+    }
+  }
+
+}
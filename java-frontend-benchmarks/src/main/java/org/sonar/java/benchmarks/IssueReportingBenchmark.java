@@ -0,0 +1,139 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.rule.CheckFactory;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.check.Rule;
+import org.sonar.java.AnalyzerMessage;
+import org.sonar.java.SonarComponents;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Reporting of many issues spread over the files of a project by {@link SonarComponents}, which finds the input file of
+ * each issue. "fileSystemLookups" are the lookups done for each issue before input files were registered, when each
+ * issue queried the file system twice, "registeredLookups" the same lookups once input files are registered.
+ * Issues are saved in a new sensor context before each operation, not to keep the issues of all the operations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssueReportingBenchmark {
+
+  private static final String REPOSITORY_KEY = "benchmark";
+  private static final Path BASE_DIR = Paths.get("").toAbsolutePath();
+
+  @Param("1000")
+  public int files;
+
+  @Param("100000")
+  public int issues;
+
+  private List<InputFile> inputFiles;
+  private List<AnalyzerMessage> messages;
+  private FileSystem fileSystem;
+  private SonarComponents sonarComponents;
+
+  @Rule(key = "IssueEverywhere")
+  public static class IssueEverywhereCheck implements JavaCheck {
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    inputFiles = new ArrayList<>(files);
+    for (int i = 0; i < files; i++) {
+      inputFiles.add(new TestInputFileBuilder("benchmark", "src/File" + i + ".java")
+        .setModuleBaseDir(BASE_DIR)
+        .initMetadata("class File" + i + " {\n}\n")
+        .build());
+    }
+    createSonarComponents();
+    JavaCheck check = sonarComponents.checkClasses()[0];
+    messages = new ArrayList<>(issues);
+    for (int i = 0; i < issues; i++) {
+      messages.add(new AnalyzerMessage(check, inputFiles.get(i % files).file(), 1, "message", 0));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void createSonarComponents() {
+    SensorContextTester context = SensorContextTester.create(BASE_DIR);
+    inputFiles.forEach(context.fileSystem()::add);
+    fileSystem = context.fileSystem();
+    CheckFactory checkFactory = new CheckFactory(new ActiveRulesBuilder().create(RuleKey.of(REPOSITORY_KEY, "IssueEverywhere")).activate().build());
+    sonarComponents = new SonarComponents(null, fileSystem, null, null, checkFactory);
+    sonarComponents.setSensorContext(context);
+    sonarComponents.registerCheckClasses(REPOSITORY_KEY, Collections.singletonList(IssueEverywhereCheck.class));
+    sonarComponents.registerInputFiles(inputFiles);
+  }
+
+  @Benchmark
+  public void reportIssues() {
+    messages.forEach(sonarComponents::reportIssue);
+  }
+
+  @Benchmark
+  public int fileSystemLookups() {
+    int lines = 0;
+    for (AnalyzerMessage message : messages) {
+      lines += fileSystem.inputFile(fileSystem.predicates().is(message.getFile())).lines();
+      lines += fileSystem.inputFile(fileSystem.predicates().is(message.getFile())).lines();
+    }
+    return lines;
+  }
+
+  @Benchmark
+  public int registeredLookups() {
+    int lines = 0;
+    for (AnalyzerMessage message : messages) {
+      lines += sonarComponents.inputFromIOFile(message.getFile()).lines();
+      lines += sonarComponents.inputFromIOFile(message.getFile()).lines();
+    }
+    return lines;
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.issue.NoSonarFilter;
+import org.sonar.java.Measurer;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Computation of the metrics of each file of the corpus by {@link Measurer}, on trees parsed and analyzed beforehand.
+ * Measures are saved in a new sensor context before each operation, as a measure can only be saved once.
+ */
+public class MeasurerBenchmark extends CorpusBenchmark {
+
+  private List<JavaFileScannerContext> contexts;
+  private Measurer measurer;
+
+  @Override
+  protected void prepare() {
+    List<CompilationUnitTree> trees = parseAll();
+    List<SemanticModel> semanticModels = semanticModels(trees);
+    contexts = new ArrayList<>(trees.size());
+    for (int i = 0; i < trees.size(); i++) {
+      File file = absolutePath(files.get(i)).toFile();
+      contexts.add(new DefaultJavaFileScannerContext(trees.get(i), file, semanticModels.get(i), null, new JavaVersionImpl(8), true));
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void createSensorContext() {
+    Path baseDir = absolutePath(new File(sources));
+    SensorContextTester context = SensorContextTester.create(baseDir);
+    for (File file : files) {
+      context.fileSystem().add(new TestInputFileBuilder("benchmark", baseDir.relativize(absolutePath(file)).toString())
+        .setModuleBaseDir(baseDir)
+        .build());
+    }
+    measurer = new Measurer(context.fileSystem(), context, new NoSonarFilter());
+  }
+
+  private static Path absolutePath(File file) {
+    return Paths.get(file.getAbsolutePath()).normalize();
+  }
+
+  @Benchmark
+  public void scanFile() {
+    for (JavaFileScannerContext context : contexts) {
+      measurer.scanFile(context);
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+/**
+ * Resource lookups on a classpath made of many jars, as done by the semantic analysis for each referenced type.
+ * {@link SquidClassLoader} is compared with a {@link URLClassLoader} on the same jars, which looks the jars up one after
+ * the other. "missing" lookups are for classes of packages which are not on the classpath, as reported in "classes not
+ * found" at the end of the analysis.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SquidClassLoaderBenchmark {
+
+  private static final int CLASSES_PER_JAR = 50;
+
+  @Param("300")
+  public int jars;
+
+  private Path directory;
+  private SquidClassLoader squidClassLoader;
+  private URLClassLoader urlClassLoader;
+  private String[] existingResources;
+  private String[] missingResources;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    directory = Files.createTempDirectory("classpath");
+    List<File> classpath = new ArrayList<>();
+    List<URL> urls = new ArrayList<>();
+    for (int i = 0; i < jars; i++) {
+      File jar = directory.resolve("lib" + i + ".jar").toFile();
+      writeJar(jar, "org/lib" + i + "/");
+      classpath.add(jar);
+      urls.add(jar.toURI().toURL());
+    }
+    squidClassLoader = new SquidClassLoader(classpath);
+    urlClassLoader = new URLClassLoader(urls.toArray(new URL[0]), null);
+
+    existingResources = new String[jars];
+    missingResources = new String[jars];
+    for (int i = 0; i < jars; i++) {
+      // spread the lookups over the whole classpath
+      existingResources[i] = "org/lib" + ((i * 7) % jars) + "/Class" + (i % CLASSES_PER_JAR) + ".class";
+      missingResources[i] = "org/missing" + i + "/Class" + (i % CLASSES_PER_JAR) + ".class";
+    }
+  }
+
+  private static void writeJar(File jar, String packagePrefix) throws IOException {
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+      for (int i = 0; i < CLASSES_PER_JAR; i++) {
+        out.putNextEntry(new JarEntry(packagePrefix + "Class" + i + ".class"));
+        out.write(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+        out.closeEntry();
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    squidClassLoader.close();
+    urlClassLoader.close();
+    try (Stream<Path> files = Files.walk(directory)) {
+      files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    }
+  }
+
+  private int next() {
+    index = (index + 1) % jars;
+    return index;
+  }
+
+  @Benchmark
+  public URL squidClassLoader_existing() {
+    return squidClassLoader.findResource(existingResources[next()]);
+  }
+
+  @Benchmark
+  public URL squidClassLoader_missing() {
+    return squidClassLoader.findResource(missingResources[next()]);
+  }
+
+  @Benchmark
+  public URL linearScan_existing() {
+    return urlClassLoader.findResource(existingResources[next()]);
+  }
+
+  @Benchmark
+  public URL linearScan_missing() {
+    return urlClassLoader.findResource(missingResources[next()]);
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.java.se.SymbolicExecutionMode;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Dispatch of the trees of each file of the corpus to subscription visitors doing nothing, subscribed to every kind of
+ * tree, tokens and trivias included. Semantic analysis is part of each operation: the cost of dispatch is the
+ * difference between runs with and without visitors.
+ */
+public class SubscriptionVisitorsBenchmark extends CorpusBenchmark {
+
+  private static final List<Tree.Kind> ALL_KINDS = Arrays.asList(Tree.Kind.values());
+
+  @Param({"0", "430"})
+  public int visitors;
+
+  private VisitorsBridge visitorsBridge;
+  private List<CompilationUnitTree> trees;
+
+  @Override
+  protected void prepare() {
+    List<IssuableSubscriptionVisitor> noOpVisitors = new ArrayList<>();
+    for (int i = 0; i < visitors; i++) {
+      noOpVisitors.add(new NoOpVisitor());
+    }
+    visitorsBridge = new VisitorsBridge(noOpVisitors, libraries, null, SymbolicExecutionMode.DISABLED);
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    trees = parseAll();
+  }
+
+  @Benchmark
+  public void visitFile() {
+    for (int i = 0; i < trees.size(); i++) {
+      visitorsBridge.setCurrentFile(files.get(i));
+      visitorsBridge.visitFile(trees.get(i));
+    }
+  }
+
+  private static class NoOpVisitor extends IssuableSubscriptionVisitor {
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return ALL_KINDS;
+    }
+  }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.xproc.BehaviorCache;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Explores the exploded graph of each method of the corpus, through {@link SymbolicExecutionVisitor} which calls
+ * ExplodedGraphWalker.visitMethod for each method, and also for the methods they invoke. No check is executed.
+ * Behaviors of the methods are computed again at each operation.
+ */
+public class SymbolicExecutionBenchmark extends CorpusBenchmark {
+
+  private List<JavaFileScannerContext> contexts;
+
+  @Override
+  protected void prepare() {
+    List<CompilationUnitTree> trees = parseAll();
+    List<SemanticModel> semanticModels = semanticModels(trees);
+    contexts = new ArrayList<>(trees.size());
+    for (int i = 0; i < trees.size(); i++) {
+      contexts.add(new DefaultJavaFileScannerContext(trees.get(i), files.get(i), semanticModels.get(i), null, new JavaVersionImpl(8), true));
+    }
+  }
+
+  @Benchmark
+  public int visitMethod() {
+    int behaviors = 0;
+    for (JavaFileScannerContext context : contexts) {
+      BehaviorCache behaviorCache = new BehaviorCache(classLoader, false);
+      new SymbolicExecutionVisitor(Collections.emptyList(), behaviorCache).scanFile(context);
+      behaviors += behaviorCache.behaviors.size();
+    }
+    return behaviors;
+  }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.sonar.java.checks.CheckList;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.model.VisitorsBridgeForTests;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Analysis of each file of the corpus by all the rules of the analyzer, symbolic execution included: semantic analysis,
+ * then the rules. Trees are parsed again before each operation, as they are modified by the semantic analysis.
+ */
+public class VisitorsBridgeBenchmark extends CorpusBenchmark {
+
+  private VisitorsBridgeForTests visitorsBridge;
+  private List<CompilationUnitTree> trees;
+
+  @Override
+  protected void prepare() {
+    List<JavaCheck> checks = new ArrayList<>();
+    for (Class<? extends JavaCheck> checkClass : CheckList.getJavaChecks()) {
+      try {
+        checks.add(checkClass.newInstance());
+      } catch (InstantiationException | IllegalAccessException e) {
+        throw new IllegalStateException("Unable to instantiate " + checkClass, e);
+      }
+    }
+    visitorsBridge = new VisitorsBridgeForTests(checks, libraries, null);
+    visitorsBridge.setJavaVersion(new JavaVersionImpl(8));
+  }
+
+  @TearDown(Level.Trial)
+  public void endOfAnalysis() {
+    visitorsBridge.endOfAnalysis();
+  }
+
+  @Setup(Level.Invocation)
+  public void parse() {
+    trees = parseAll();
+  }
+
+  @Benchmark
+  public int visitFile() {
+    int issues = 0;
+    for (int i = 0; i < trees.size(); i++) {
+      visitorsBridge.setCurrentFile(files.get(i));
+      visitorsBridge.visitFile(trees.get(i));
+      issues += visitorsBridge.lastCreatedTestContext().getIssues().size();
+    }
+    return issues;
+  }
+
+}
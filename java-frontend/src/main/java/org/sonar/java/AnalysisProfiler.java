@@ -0,0 +1,226 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.GsonBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.sonar.api.utils.AnnotationUtils;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.check.Rule;
+
+/**
+ * Wall time and allocated memory spent in each phase of the analysis, in each rule and on each file.
+ *
+ * Nothing is measured when profiling is disabled: callers keep a null reference instead of an instance of this class.
+ * Phases are measured around a whole file, and so are the rules executed once per file. Rules based on subscriptions are
+ * called for each node of the tree: only their time is measured, reading the allocation counter of the thread for each node
+ * would cost more than the rules themselves.
+ * Parsing can happen on other threads than the rest of the analysis, hence counters are thread safe.
+ */
+public class AnalysisProfiler {
+
+  private static final Logger LOG = Loggers.get(AnalysisProfiler.class);
+  private static final int TOP_ENTRIES = 10;
+
+  public enum Phase {
+    PARSE,
+    SEMANTIC,
+    SYMBOLIC_EXECUTION,
+    FILE_VISITORS,
+    SUBSCRIPTION_VISITORS
+  }
+
+  private final File reportFile;
+  private final AllocationCounter allocationCounter;
+  private final Map<Phase, Counter> phases = new EnumMap<>(Phase.class);
+  private final Map<String, Counter> rules = new ConcurrentHashMap<>();
+  private final Map<String, Counter> files = new ConcurrentHashMap<>();
+  private final Map<Object, Counter> countersByVisitor = new IdentityHashMap<>();
+
+  public AnalysisProfiler(File reportFile) {
+    this(reportFile, AllocationCounter.create());
+  }
+
+  @VisibleForTesting
+  AnalysisProfiler(File reportFile, AllocationCounter allocationCounter) {
+    this.reportFile = reportFile;
+    this.allocationCounter = allocationCounter;
+    for (Phase phase : Phase.values()) {
+      phases.put(phase, new Counter());
+    }
+  }
+
+  public Measure start() {
+    return new Measure(System.nanoTime(), allocationCounter.allocatedBytes());
+  }
+
+  public void recordFile(Phase phase, File file, Measure measure) {
+    long nanos = System.nanoTime() - measure.startNanos;
+    long bytes = allocationCounter.allocatedBytes() - measure.startBytes;
+    phases.get(phase).add(nanos, bytes);
+    files.computeIfAbsent(file.getPath(), k -> new Counter()).add(nanos, bytes);
+  }
+
+  /**
+   * Accounts for a visitor executed once on the whole file. Its phase and the file are measured by the caller.
+   */
+  public void recordVisitor(Object visitor, Measure measure) {
+    counter(visitor).add(System.nanoTime() - measure.startNanos, allocationCounter.allocatedBytes() - measure.startBytes);
+  }
+
+  /**
+   * Counter of a visitor, to be kept by callers accounting for calls which are too frequent to look it up each time.
+   */
+  public Counter counter(Object visitor) {
+    return countersByVisitor.computeIfAbsent(visitor, v -> rules.computeIfAbsent(key(v), k -> new Counter()));
+  }
+
+  @VisibleForTesting
+  Counter phase(Phase phase) {
+    return phases.get(phase);
+  }
+
+  @VisibleForTesting
+  Counter file(File file) {
+    return files.get(file.getPath());
+  }
+
+  private static String key(Object visitor) {
+    Rule rule = AnnotationUtils.getAnnotation(visitor.getClass(), Rule.class);
+    if (rule != null) {
+      return rule.key();
+    }
+    return visitor.getClass().getName();
+  }
+
+  /**
+   * Writes the JSON report and logs the phases, rules and files which took the most time.
+   */
+  public void report() {
+    Map<String, Object> content = new LinkedHashMap<>();
+    content.put("phases", phases.entrySet().stream().collect(Collectors.toMap(e -> e.getKey().name(), e -> e.getValue().toReport(), (a, b) -> a, LinkedHashMap::new)));
+    content.put("rules", sorted(rules));
+    content.put("files", sorted(files));
+    try {
+      Files.createDirectories(reportFile.getParentFile().toPath());
+      try (Writer writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+        new GsonBuilder().setPrettyPrinting().create().toJson(content, writer);
+      }
+      LOG.info("Analysis profile written to {}", reportFile);
+    } catch (IOException e) {
+      LOG.warn("Unable to write analysis profile in " + reportFile, e);
+    }
+    LOG.info("Time spent per phase:{}", summary(phases.entrySet().stream().collect(Collectors.toMap(e -> e.getKey().name(), Map.Entry::getValue))));
+    LOG.info("Slowest rules:{}", summary(rules));
+    LOG.info("Slowest files:{}", summary(files));
+  }
+
+  private static Map<String, Map<String, Long>> sorted(Map<String, Counter> counters) {
+    return new TreeMap<>(counters).entrySet().stream()
+      .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toReport(), (a, b) -> a, LinkedHashMap::new));
+  }
+
+  private static String summary(Map<String, Counter> counters) {
+    return counters.entrySet().stream()
+      .filter(e -> e.getValue().calls() > 0)
+      .sorted(Comparator.comparingLong((Map.Entry<String, Counter> e) -> e.getValue().nanos()).reversed())
+      .limit(TOP_ENTRIES)
+      .map(e -> String.format("%n  %s: %d ms, %d MB allocated", e.getKey(), e.getValue().nanos() / 1_000_000, e.getValue().allocatedBytes() / (1024 * 1024)))
+      .collect(Collectors.joining());
+  }
+
+  public static class Measure {
+    private final long startNanos;
+    private final long startBytes;
+
+    private Measure(long startNanos, long startBytes) {
+      this.startNanos = startNanos;
+      this.startBytes = startBytes;
+    }
+  }
+
+  public static class Counter {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    public void add(long elapsedNanos, long bytes) {
+      calls.increment();
+      nanos.add(elapsedNanos);
+      allocatedBytes.add(bytes);
+    }
+
+    public long calls() {
+      return calls.sum();
+    }
+
+    public long nanos() {
+      return nanos.sum();
+    }
+
+    public long allocatedBytes() {
+      return allocatedBytes.sum();
+    }
+
+    private Map<String, Long> toReport() {
+      Map<String, Long> report = new LinkedHashMap<>();
+      report.put("calls", calls());
+      report.put("timeMs", nanos() / 1_000_000);
+      report.put("allocatedBytes", allocatedBytes());
+      return report;
+    }
+  }
+
+  /**
+   * Bytes allocated by the current thread since it started, when the JVM is able to tell.
+   */
+  @FunctionalInterface
+  interface AllocationCounter {
+    long allocatedBytes();
+
+    static AllocationCounter create() {
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+          return () -> bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      }
+      return () -> 0L;
+    }
+  }
+}
@@ -0,0 +1,407 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+
+/**
+ * Issues raised by the rules on each file during the previous analysis, used to skip the rules on files which did not change.
+ *
+ * A file is re-analyzed when its content changed, or when one of the top-level types it references is affected by a change:
+ * declared in a file which changed, was added or was deleted, or declared in a file referencing such a type, directly or through
+ * other files. Following references transitively covers supertypes of supertypes and method behaviors computed across files by
+ * symbolic execution, as a method only calls methods of the types it references. The whole cache is discarded when the active
+ * rules, their parameters, the Java version or the libraries of the classpath change, class directories of other modules included.
+ * Files which changed are analyzed first, so that the types they now declare are known before deciding to reuse the results of
+ * the other files.
+ * Only the rules are skipped for a reused file: metrics, highlighting and symbol tables are still computed, and rules
+ * implementing {@link EndOfAnalysisCheck} are always executed as they aggregate data over all the files.
+ */
+public class AnalysisResultCache {
+
+  private static final Logger LOG = Loggers.get(AnalysisResultCache.class);
+
+  private final File file;
+  private final String fingerprint;
+  private final Map<String, FileResult> previousResults;
+  private final Map<String, FileResult> results = new HashMap<>();
+  private final Map<String, String> contentHashes = new HashMap<>();
+  private final Set<String> changedTypes = new HashSet<>();
+  @Nullable
+  private Set<String> affectedTypes = null;
+  private int reusedFiles = 0;
+
+  private AnalysisResultCache(File file, String fingerprint, Map<String, FileResult> previousResults) {
+    this.file = file;
+    this.fingerprint = fingerprint;
+    this.previousResults = previousResults;
+  }
+
+  public static AnalysisResultCache load(File file, String fingerprint) {
+    if (file.isFile()) {
+      try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+        CacheContent content = new Gson().fromJson(reader, CacheContent.class);
+        if (content != null && fingerprint.equals(content.fingerprint) && content.files != null) {
+          return new AnalysisResultCache(file, fingerprint, content.files);
+        }
+        LOG.info("Analysis results of previous analysis can not be reused: configuration changed");
+      } catch (IOException | JsonParseException e) {
+        LOG.debug("Unable to read analysis results " + file, e);
+      }
+    }
+    return new AnalysisResultCache(file, fingerprint, new HashMap<>());
+  }
+
+  /**
+   * Fingerprint of everything, except the content of the files, which has an impact on the issues raised.
+   * @param outputDirectories directories of the classpath compiled from the analyzed files: their content is covered by the
+   * dependencies between files. Other directories, such as the classes of other modules, are fingerprinted with their class files.
+   */
+  public static String fingerprint(JavaVersion javaVersion, List<File> classpath, Collection<File> outputDirectories, Collection<ActiveRule> activeRules) {
+    Hasher hasher = Hashing.murmur3_128().newHasher()
+      .putString(String.valueOf(AnalysisResultCache.class.getPackage().getImplementationVersion()), StandardCharsets.UTF_8)
+      .putString(javaVersion.toString(), StandardCharsets.UTF_8);
+    for (File element : classpath) {
+      if (element.isFile()) {
+        hasher.putString(element.getAbsolutePath(), StandardCharsets.UTF_8).putLong(element.length()).putLong(element.lastModified());
+      } else if (element.isDirectory() && !outputDirectories.contains(element)) {
+        hasher.putString(element.getAbsolutePath(), StandardCharsets.UTF_8);
+        putClassFiles(hasher, element.toPath());
+      }
+    }
+    activeRules.stream()
+      .map(activeRule -> activeRule.ruleKey() + "=" + new TreeMap<>(activeRule.params()))
+      .sorted()
+      .forEach(rule -> hasher.putString(rule, StandardCharsets.UTF_8));
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Class files are hashed on their content rather than on their dates, as rebuilding another module rewrites them all.
+   */
+  private static void putClassFiles(Hasher hasher, Path directory) {
+    try (Stream<Path> files = Files.walk(directory)) {
+      List<Path> classFiles = files.filter(path -> path.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+      for (Path classFile : classFiles) {
+        hasher.putString(directory.relativize(classFile).toString(), StandardCharsets.UTF_8).putBytes(Files.readAllBytes(classFile));
+      }
+    } catch (IOException e) {
+      LOG.debug("Unable to read class files of " + directory, e);
+      // results of the previous analysis can not be trusted
+      hasher.putLong(System.nanoTime());
+    }
+  }
+
+  /**
+   * @param contentProvider gives the content of the files
+   * @return the files to analyze, starting with the ones which changed since the previous analysis
+   */
+  public List<File> analysisOrder(Collection<File> files, Function<File, String> contentProvider) {
+    List<File> changedFiles = new ArrayList<>();
+    List<File> unchangedFiles = new ArrayList<>();
+    Set<String> deletedFiles = new HashSet<>(previousResults.keySet());
+    for (File inputFile : files) {
+      String key = key(inputFile);
+      deletedFiles.remove(key);
+      String contentHash = Hashing.murmur3_128().hashString(contentProvider.apply(inputFile), StandardCharsets.UTF_8).toString();
+      contentHashes.put(key, contentHash);
+      FileResult previousResult = previousResults.get(key);
+      if (previousResult != null && contentHash.equals(previousResult.contentHash)) {
+        unchangedFiles.add(inputFile);
+      } else {
+        changedFiles.add(inputFile);
+        if (previousResult != null) {
+          changedTypes.addAll(previousResult.declaredTypes);
+        }
+      }
+    }
+    deletedFiles.forEach(deletedFile -> changedTypes.addAll(previousResults.get(deletedFile).declaredTypes));
+    affectedTypes = null;
+    LOG.info("{}/{} files changed since previous analysis", changedFiles.size(), files.size());
+    changedFiles.addAll(unchangedFiles);
+    return changedFiles;
+  }
+
+  /**
+   * Results of a file can be reused once all the files which changed have been analyzed.
+   */
+  public boolean canReuse(File inputFile) {
+    String key = key(inputFile);
+    FileResult previousResult = previousResults.get(key);
+    return previousResult != null
+      && previousResult.contentHash.equals(contentHashes.get(key))
+      && previousResult.dependencies.stream().noneMatch(affectedTypes()::contains);
+  }
+
+  /**
+   * Changed types and the types declared in files depending on them, directly or transitively. Computed again only when
+   * the dependencies between files change.
+   */
+  private Set<String> affectedTypes() {
+    if (affectedTypes == null) {
+      Map<String, Set<String>> dependentTypes = new HashMap<>();
+      for (String key : contentHashes.keySet()) {
+        FileResult result = results.getOrDefault(key, previousResults.get(key));
+        if (result != null) {
+          result.dependencies.forEach(dependency -> dependentTypes.computeIfAbsent(dependency, d -> new HashSet<>()).addAll(result.declaredTypes));
+        }
+      }
+      affectedTypes = new HashSet<>(changedTypes);
+      Deque<String> toVisit = new ArrayDeque<>(changedTypes);
+      while (!toVisit.isEmpty()) {
+        for (String dependentType : dependentTypes.getOrDefault(toVisit.pop(), Collections.emptySet())) {
+          if (affectedTypes.add(dependentType)) {
+            toVisit.push(dependentType);
+          }
+        }
+      }
+    }
+    return affectedTypes;
+  }
+
+  /**
+   * Reports again the issues raised on the file by the previous analysis.
+   * @param checksByRuleKey active checks indexed by rule key
+   */
+  public void replay(File inputFile, Map<String, ? extends JavaCheck> checksByRuleKey, SonarComponents sonarComponents) {
+    String key = key(inputFile);
+    FileResult previousResult = previousResults.get(key);
+    for (CachedIssue issue : previousResult.issues) {
+      JavaCheck check = checksByRuleKey.get(issue.ruleKey);
+      if (check != null) {
+        sonarComponents.reportIssue(issue.toAnalyzerMessage(check, inputFile));
+      }
+    }
+    results.put(key, previousResult);
+    reusedFiles++;
+  }
+
+  /**
+   * Starts collecting results of a file for which rules are executed.
+   */
+  public void startFile(File inputFile, CompilationUnitTree tree) {
+    String key = key(inputFile);
+    FileResult result = new FileResult();
+    result.contentHash = contentHashes.get(key);
+    TypeDependenciesVisitor dependenciesVisitor = new TypeDependenciesVisitor();
+    tree.accept(dependenciesVisitor);
+    result.declaredTypes = dependenciesVisitor.declaredTypes;
+    result.dependencies = dependenciesVisitor.dependencies;
+    result.dependencies.removeAll(result.declaredTypes);
+    FileResult previousResult = previousResults.get(key);
+    if (previousResult == null || !previousResult.contentHash.equals(result.contentHash)) {
+      changedTypes.addAll(result.declaredTypes);
+      affectedTypes = null;
+    } else if (!previousResult.declaredTypes.equals(result.declaredTypes) || !previousResult.dependencies.equals(result.dependencies)) {
+      affectedTypes = null;
+    }
+    if (result.contentHash != null) {
+      results.put(key, result);
+    }
+  }
+
+  /**
+   * Records an issue raised by a rule on the file currently analyzed.
+   */
+  public void record(File inputFile, AnalyzerMessage analyzerMessage, String ruleKey) {
+    FileResult result = results.get(key(inputFile));
+    if (result != null) {
+      result.issues.add(new CachedIssue(ruleKey, analyzerMessage));
+    }
+  }
+
+  /**
+   * Results of files which could not be fully analyzed (parsing or semantic errors) are not kept.
+   */
+  public void discard(File inputFile) {
+    results.remove(key(inputFile));
+  }
+
+  public void save() {
+    LOG.info("Reused analysis results of {} files", reusedFiles);
+    CacheContent content = new CacheContent();
+    content.fingerprint = fingerprint;
+    content.files = results;
+    try {
+      Files.createDirectories(file.getParentFile().toPath());
+      try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+        new Gson().toJson(content, writer);
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to save analysis results in " + file, e);
+    }
+  }
+
+  @VisibleForTesting
+  Set<String> changedTypes() {
+    return changedTypes;
+  }
+
+  private static String key(File inputFile) {
+    return inputFile.getAbsolutePath();
+  }
+
+  private static class CacheContent {
+    String fingerprint;
+    Map<String, FileResult> files;
+  }
+
+  private static class FileResult {
+    String contentHash;
+    Set<String> declaredTypes = new HashSet<>();
+    Set<String> dependencies = new HashSet<>();
+    List<CachedIssue> issues = new ArrayList<>();
+  }
+
+  private static class CachedIssue {
+    String ruleKey;
+    String message;
+    int cost;
+    Location location;
+    List<List<Location>> flows;
+
+    CachedIssue(String ruleKey, AnalyzerMessage analyzerMessage) {
+      this.ruleKey = ruleKey;
+      this.message = analyzerMessage.getMessage();
+      Double issueCost = analyzerMessage.getCost();
+      this.cost = issueCost == null ? 0 : issueCost.intValue();
+      this.location = Location.of(analyzerMessage.primaryLocation(), analyzerMessage.getMessage());
+      this.flows = analyzerMessage.flows.stream()
+        .map(flow -> flow.stream().map(flowMessage -> Location.of(flowMessage.primaryLocation(), flowMessage.getMessage())).collect(Collectors.toList()))
+        .collect(Collectors.toList());
+    }
+
+    AnalyzerMessage toAnalyzerMessage(JavaCheck check, File inputFile) {
+      AnalyzerMessage analyzerMessage = new AnalyzerMessage(check, inputFile, Location.textSpan(location), message, cost);
+      for (List<Location> flow : flows) {
+        analyzerMessage.flows.add(flow.stream()
+          .map(flowLocation -> new AnalyzerMessage(check, inputFile, Location.textSpan(flowLocation), flowLocation.message, 0))
+          .collect(Collectors.toList()));
+      }
+      return analyzerMessage;
+    }
+  }
+
+  private static class Location {
+    int startLine;
+    int startCharacter;
+    int endLine;
+    int endCharacter;
+    String message;
+
+    @CheckForNull
+    static Location of(@Nullable AnalyzerMessage.TextSpan textSpan, String message) {
+      if (textSpan == null) {
+        return null;
+      }
+      Location location = new Location();
+      location.startLine = textSpan.startLine;
+      location.startCharacter = textSpan.startCharacter;
+      location.endLine = textSpan.endLine;
+      location.endCharacter = textSpan.endCharacter;
+      location.message = message;
+      return location;
+    }
+
+    @CheckForNull
+    static AnalyzerMessage.TextSpan textSpan(@Nullable Location location) {
+      if (location == null) {
+        return null;
+      }
+      return new AnalyzerMessage.TextSpan(location.startLine, location.startCharacter, location.endLine, location.endCharacter);
+    }
+  }
+
+  /**
+   * Collects the top-level types declared in a file and the top-level types it references.
+   */
+  private static class TypeDependenciesVisitor extends BaseTreeVisitor {
+    private final Set<String> declaredTypes = new HashSet<>();
+    private final Set<String> dependencies = new HashSet<>();
+
+    @Override
+    public void visitClass(ClassTree tree) {
+      Symbol.TypeSymbol symbol = tree.symbol();
+      if (symbol != null && !symbol.isUnknown() && symbol.owner() != null && symbol.owner().isPackageSymbol()) {
+        declaredTypes.add(symbol.type().fullyQualifiedName());
+      }
+      super.visitClass(tree);
+    }
+
+    @Override
+    public void visitIdentifier(IdentifierTree tree) {
+      Symbol symbol = tree.symbol();
+      if (symbol != null && !symbol.isUnknown()) {
+        Symbol.TypeSymbol typeSymbol = topLevelType(symbol);
+        if (typeSymbol != null) {
+          dependencies.add(typeSymbol.type().fullyQualifiedName());
+        }
+      }
+      super.visitIdentifier(tree);
+    }
+
+    @CheckForNull
+    private static Symbol.TypeSymbol topLevelType(Symbol symbol) {
+      Symbol.TypeSymbol typeSymbol = symbol.isTypeSymbol() ? (Symbol.TypeSymbol) symbol : symbol.enclosingClass();
+      while (typeSymbol != null && typeSymbol.owner() != null && !typeSymbol.owner().isPackageSymbol()) {
+        typeSymbol = typeSymbol.owner().enclosingClass();
+      }
+      return typeSymbol;
+    }
+  }
+
+}
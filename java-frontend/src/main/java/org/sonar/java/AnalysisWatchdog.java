@@ -0,0 +1,171 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Time budgets of the analysis of a file and of the symbolic execution of a method, and the files which took the most time.
+ *
+ * Parsing and semantic analysis can not be interrupted, but their time is accounted to the budget of the file. Once the budget
+ * of a file is exhausted, symbolic execution of its remaining methods and its remaining rules are skipped: the issues already
+ * raised are kept, as well as metrics, highlighting and everything else which is not a rule.
+ * Symbolic execution of a method stops when the budget of the method, or what remains of the budget of the file, is exhausted.
+ */
+public class AnalysisWatchdog {
+
+  private static final Logger LOG = Loggers.get(AnalysisWatchdog.class);
+  private static final int SLOWEST_FILES = 10;
+
+  private final long fileBudgetNanos;
+  private final long methodBudgetNanos;
+  private final PriorityQueue<FileDuration> slowestFiles = new PriorityQueue<>(Comparator.comparingLong(FileDuration::nanos));
+  private File currentFile;
+  private long fileStart;
+  private boolean fileInterrupted;
+  private int interruptedFiles = 0;
+  private int interruptedMethods = 0;
+
+  /**
+   * @param fileBudgetMillis time budget of a file, 0 for none
+   * @param methodBudgetMillis time budget of the symbolic execution of a method, 0 for none
+   */
+  public AnalysisWatchdog(long fileBudgetMillis, long methodBudgetMillis) {
+    this.fileBudgetNanos = TimeUnit.MILLISECONDS.toNanos(fileBudgetMillis);
+    this.methodBudgetNanos = TimeUnit.MILLISECONDS.toNanos(methodBudgetMillis);
+  }
+
+  /**
+   * @param parseNanos time already spent parsing the file, possibly on another thread
+   */
+  public void startFile(File file, long parseNanos) {
+    currentFile = file;
+    fileStart = System.nanoTime() - parseNanos;
+    fileInterrupted = false;
+  }
+
+  public void endFile() {
+    if (currentFile == null) {
+      return;
+    }
+    slowestFiles.add(new FileDuration(currentFile, System.nanoTime() - fileStart));
+    if (slowestFiles.size() > SLOWEST_FILES) {
+      slowestFiles.poll();
+    }
+    if (fileInterrupted) {
+      interruptedFiles++;
+    }
+    currentFile = null;
+  }
+
+  /**
+   * @param phase what is skipped when the budget is exhausted, for the log
+   * @return true when the budget of the current file is exhausted
+   */
+  public boolean fileBudgetExceeded(String phase) {
+    if (fileInterrupted) {
+      return true;
+    }
+    if (fileBudgetNanos <= 0 || currentFile == null || System.nanoTime() - fileStart <= fileBudgetNanos) {
+      return false;
+    }
+    fileInterrupted = true;
+    LOG.warn("Time budget of {} ms exceeded on file {}, skipping {}", TimeUnit.NANOSECONDS.toMillis(fileBudgetNanos), currentFile.getPath(), phase);
+    return true;
+  }
+
+  /**
+   * @return true when the budget of the current file was exhausted, and its analysis is incomplete
+   */
+  public boolean fileInterrupted() {
+    return fileInterrupted;
+  }
+
+  /**
+   * @return the value of {@link System#nanoTime()} after which symbolic execution of the method starting now stops,
+   * {@link Long#MAX_VALUE} when there is no budget
+   */
+  public long methodDeadline() {
+    return methodDeadline(Long.MAX_VALUE);
+  }
+
+  /**
+   * @param callerDeadline deadline of the method whose exploration requires to explore this method, to compute its behavior
+   * @return the deadline of the method starting now, which is never after the deadline of its caller
+   */
+  public long methodDeadline(long callerDeadline) {
+    long now = System.nanoTime();
+    long deadline = callerDeadline;
+    if (methodBudgetNanos > 0) {
+      deadline = Math.min(deadline, now + methodBudgetNanos);
+    }
+    if (fileBudgetNanos > 0 && currentFile != null) {
+      deadline = Math.min(deadline, fileStart + fileBudgetNanos);
+    }
+    return deadline;
+  }
+
+  public void methodBudgetExceeded(String method) {
+    interruptedMethods++;
+    LOG.warn("Time budget exceeded by symbolic execution of method {} in file {}, issues found so far are kept", method,
+      currentFile == null ? "" : currentFile.getPath());
+  }
+
+  public void report() {
+    if (interruptedFiles > 0 || interruptedMethods > 0) {
+      LOG.warn("Time budget exceeded on {} files and {} methods, their analysis is incomplete", interruptedFiles, interruptedMethods);
+    }
+    LOG.info("Slowest files:{}", slowestFiles().stream()
+      .map(f -> String.format("%n  %s: %d ms", f.file.getPath(), TimeUnit.NANOSECONDS.toMillis(f.nanos)))
+      .collect(Collectors.joining()));
+  }
+
+  @VisibleForTesting
+  List<FileDuration> slowestFiles() {
+    return slowestFiles.stream().sorted(Comparator.comparingLong(FileDuration::nanos).reversed()).collect(Collectors.toList());
+  }
+
+  @VisibleForTesting
+  static class FileDuration {
+    private final File file;
+    private final long nanos;
+
+    FileDuration(File file, long nanos) {
+      this.file = file;
+      this.nanos = nanos;
+    }
+
+    File file() {
+      return file;
+    }
+
+    long nanos() {
+      return nanos;
+    }
+  }
+}
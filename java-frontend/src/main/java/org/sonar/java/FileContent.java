@@ -0,0 +1,116 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Content of a file, read once and shared by the parser and by the checks. Lines are split as by
+ * {@link java.util.Scanner#nextLine()}, on an index of their offsets computed on first use, and each line is only
+ * copied out of the content when it is read.
+ */
+class FileContent {
+
+  private final String content;
+  private List<String> lines;
+
+  FileContent(String content) {
+    this.content = content;
+  }
+
+  String content() {
+    return content;
+  }
+
+  List<String> lines() {
+    if (lines == null) {
+      lines = new Lines(content);
+    }
+    return lines;
+  }
+
+  private static class Lines extends AbstractList<String> {
+    private final String content;
+    /**
+     * Offsets of the first character of each line, and of the character following it, line terminator excluded.
+     */
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] values;
+
+    Lines(String content) {
+      this.content = content;
+      int[] lineStarts = new int[16];
+      int[] lineEnds = new int[16];
+      int count = 0;
+      int start = 0;
+      int length = content.length();
+      int i = 0;
+      while (i < length) {
+        char c = content.charAt(i);
+        if (isLineTerminator(c)) {
+          if (count == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, count * 2);
+            lineEnds = Arrays.copyOf(lineEnds, count * 2);
+          }
+          lineStarts[count] = start;
+          lineEnds[count] = i;
+          count++;
+          i += c == '\r' && i + 1 < length && content.charAt(i + 1) == '\n' ? 2 : 1;
+          start = i;
+        } else {
+          i++;
+        }
+      }
+      if (start < length) {
+        // last line, without terminator
+        lineStarts = Arrays.copyOf(lineStarts, count + 1);
+        lineEnds = Arrays.copyOf(lineEnds, count + 1);
+        lineStarts[count] = start;
+        lineEnds[count] = length;
+        count++;
+      }
+      this.starts = Arrays.copyOf(lineStarts, count);
+      this.ends = Arrays.copyOf(lineEnds, count);
+      this.values = new String[count];
+    }
+
+    private static boolean isLineTerminator(char c) {
+      return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+    }
+
+    @Override
+    public String get(int index) {
+      String value = values[index];
+      if (value == null) {
+        value = content.substring(starts[index], ends[index]);
+        values[index] = value;
+      }
+      return value;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
@@ -49,6 +49,12 @@ public class JavaSquid {
 
   private final JavaAstScanner astScanner;
   private final JavaAstScanner astScannerForTests;
+  @Nullable
+  private final SonarComponents sonarComponents;
+  @Nullable
+  private AnalysisResultCache resultCache;
+  @Nullable
+  private AnalysisResultCache resultCacheForTests;
 
   public JavaSquid(JavaVersion javaVersion,
     @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
@@ -60,9 +66,13 @@ public class JavaSquid {
                    @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
                    JavaResourceLocator javaResourceLocator, @Nullable SonarJavaIssueFilter postAnalysisIssueFilter, JavaCheck... visitors) {
 
+    this.sonarComponents = sonarComponents;
     List<JavaCheck> commonVisitors = Lists.newArrayList(javaResourceLocator);
     if (postAnalysisIssueFilter != null) {
       commonVisitors.add(postAnalysisIssueFilter);
+      if (sonarComponents != null) {
+        sonarComponents.setIssueFilter(postAnalysisIssueFilter);
+      }
     }
 
     Iterable<JavaCheck> codeVisitors = Iterables.concat(commonVisitors, Arrays.asList(visitors));
@@ -87,12 +97,34 @@ public class JavaSquid {
     //AstScanner for main files
     ActionParser<Tree> parser = JavaParser.createParser();
     astScanner = new JavaAstScanner(parser, sonarComponents);
-    astScanner.setVisitorBridge(createVisitorBridge(codeVisitors, classpath, javaVersion, sonarComponents, SymbolicExecutionMode.getMode(visitors, xFileEnabled)));
+    VisitorsBridge visitorsBridge = createVisitorBridge(codeVisitors, classpath, javaVersion, sonarComponents, SymbolicExecutionMode.getMode(visitors, xFileEnabled));
+    astScanner.setVisitorBridge(visitorsBridge);
 
     //AstScanner for test files
     astScannerForTests = new JavaAstScanner(parser, sonarComponents);
-    astScannerForTests.setVisitorBridge(createVisitorBridge(testCodeVisitors, testClasspath, javaVersion, sonarComponents, SymbolicExecutionMode.DISABLED));
+    VisitorsBridge visitorsBridgeForTests = createVisitorBridge(testCodeVisitors, testClasspath, javaVersion, sonarComponents, SymbolicExecutionMode.DISABLED);
+    astScannerForTests.setVisitorBridge(visitorsBridgeForTests);
+
+    File resultsDirectory = sonarComponents == null ? null : sonarComponents.analysisResultsDirectory();
+    if (resultsDirectory != null) {
+      resultCache = AnalysisResultCache.load(new File(resultsDirectory, "main.json"),
+        AnalysisResultCache.fingerprint(javaVersion, classpath, sonarComponents.getJavaBinaryDirs(), sonarComponents.activeRules()));
+      visitorsBridge.setAnalysisResultCache(resultCache);
+      resultCacheForTests = AnalysisResultCache.load(new File(resultsDirectory, "test.json"),
+        AnalysisResultCache.fingerprint(javaVersion, testClasspath, sonarComponents.getJavaTestBinaryDirs(), sonarComponents.activeRules()));
+      visitorsBridgeForTests.setAnalysisResultCache(resultCacheForTests);
+    }
+
+    File profilingDirectory = sonarComponents == null ? null : sonarComponents.profilingDirectory();
+    if (profilingDirectory != null) {
+      astScanner.setAnalysisProfiler(new AnalysisProfiler(new File(profilingDirectory, "main.json")));
+      astScannerForTests.setAnalysisProfiler(new AnalysisProfiler(new File(profilingDirectory, "test.json")));
+    }
 
+    if (sonarComponents != null && (sonarComponents.fileTimeBudget() > 0 || sonarComponents.methodTimeBudget() > 0)) {
+      astScanner.setAnalysisWatchdog(new AnalysisWatchdog(sonarComponents.fileTimeBudget(), sonarComponents.methodTimeBudget()));
+      astScannerForTests.setAnalysisWatchdog(new AnalysisWatchdog(sonarComponents.fileTimeBudget(), sonarComponents.methodTimeBudget()));
+    }
   }
 
   private static VisitorsBridge createVisitorBridge(
@@ -110,14 +142,21 @@ public class JavaSquid {
 
   private void scanSources(Collection<File> sourceFiles) {
     Profiler profiler = Profiler.create(LOG).startInfo("Java Main Files AST scan");
-    astScanner.scan(sourceFiles);
+    astScanner.scan(analysisOrder(resultCache, sourceFiles));
     profiler.stopInfo();
   }
 
   private void scanTests(Collection<File> testFiles) {
     Profiler profiler = Profiler.create(LOG).startInfo("Java Test Files AST scan");
-    astScannerForTests.scan(testFiles);
+    astScannerForTests.scan(analysisOrder(resultCacheForTests, testFiles));
     profiler.stopInfo();
   }
 
+  private Collection<File> analysisOrder(@Nullable AnalysisResultCache cache, Collection<File> files) {
+    if (cache == null || sonarComponents == null) {
+      return files;
+    }
+    return cache.analysisOrder(files, sonarComponents::readFileContent);
+  }
+
 }
@@ -21,6 +21,8 @@ package org.sonar.java;
 
 import com.google.common.collect.ImmutableList;
 import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
@@ -34,14 +36,15 @@ import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Metric;
 import org.sonar.java.ast.visitors.CognitiveComplexityVisitor;
 import org.sonar.java.ast.visitors.CommentLinesVisitor;
+import org.sonar.java.ast.visitors.ComplexityVisitor;
 import org.sonar.java.ast.visitors.LinesOfCodeVisitor;
 import org.sonar.java.ast.visitors.StatementVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.ClassTree;
-import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public class Measurer extends SubscriptionVisitor {
@@ -59,6 +62,14 @@ public class Measurer extends SubscriptionVisitor {
 
   private final Deque<ClassTree> classTrees = new LinkedList<>();
   private int classes;
+  private int fileComplexity;
+  /**
+   * Complexity of the enclosing methods, classes and lambdas, innermost first: the rules of {@link ComplexityVisitor}
+   * are applied, so the complexity of a method does not include the one of the classes and lambdas it contains.
+   */
+  private final Deque<int[]> complexityScopes = new ArrayDeque<>();
+  private LinesOfCodeVisitor linesOfCodeVisitor;
+  private CommentLinesVisitor commentLinesVisitor;
 
   public Measurer(FileSystem fs, SensorContext context, NoSonarFilter noSonarFilter) {
     this.fs = fs;
@@ -76,29 +87,58 @@ public class Measurer extends SubscriptionVisitor {
 
   @Override
   public List<Tree.Kind> nodesToVisit() {
-    return ImmutableList.of(Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.ENUM, Tree.Kind.ANNOTATION_TYPE,
-        Tree.Kind.NEW_CLASS, Tree.Kind.ENUM_CONSTANT,
-        Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR);
+    if (isSonarLintContext()) {
+      // No need to compute metrics on SonarLint side
+      return Collections.emptyList();
+    }
+    return ImmutableList.<Tree.Kind>builder()
+      .add(Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.ENUM, Tree.Kind.ANNOTATION_TYPE,
+        Tree.Kind.NEW_CLASS, Tree.Kind.ENUM_CONSTANT)
+      // complexity, methods and lambdas included
+      .addAll(ComplexityVisitor.COMPLEXITY_KINDS)
+      // lines of code and comments
+      .add(Tree.Kind.TOKEN)
+      .build();
   }
 
 
+  /**
+   * Only used when the measurer runs on its own: during an analysis, the measures are computed by the traversal of the tree
+   * shared with the rules, see {@link org.sonar.java.model.VisitorsBridge}.
+   */
   @Override
   public void scanFile(JavaFileScannerContext context) {
+    setContext(context);
+    scanTree(context.getTree());
+    leaveFile(context);
+  }
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
     sonarFile = fs.inputFile(fs.predicates().is(context.getFile()));
-    CommentLinesVisitor commentLinesVisitor = createCommentLineVisitorAndFindNoSonar(context);
     if(isSonarLintContext()) {
-      // No need to compute metrics on SonarLint side, but the no sonar filter is still required
+      // the no sonar filter is still required
+      createCommentLineVisitorAndFindNoSonar(context);
       return;
     }
     classTrees.clear();
+    complexityScopes.clear();
     methods = 0;
     complexityInMethods = 0;
     classes = 0;
+    fileComplexity = 0;
     methodComplexityDistribution = new RangeDistributionBuilder(LIMITS_COMPLEXITY_METHODS);
-    super.setContext(context);
-    scanTree(context.getTree());
-    //leave file.
-    int fileComplexity = context.getComplexityNodes(context.getTree()).size();
+    linesOfCodeVisitor = new LinesOfCodeVisitor();
+    commentLinesVisitor = new CommentLinesVisitor();
+  }
+
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
+    if(isSonarLintContext()) {
+      return;
+    }
+    noSonarFilter.noSonarInFile(sonarFile, commentLinesVisitor.noSonarLines());
     saveMetricOnFile(CoreMetrics.CLASSES, classes);
     saveMetricOnFile(CoreMetrics.FUNCTIONS, methods);
     saveMetricOnFile(CoreMetrics.COMPLEXITY_IN_FUNCTIONS, complexityInMethods);
@@ -106,7 +146,7 @@ public class Measurer extends SubscriptionVisitor {
     saveMetricOnFile(CoreMetrics.COMPLEXITY, fileComplexity);
     saveMetricOnFile(CoreMetrics.COMMENT_LINES, commentLinesVisitor.commentLinesMetric());
     saveMetricOnFile(CoreMetrics.STATEMENTS, new StatementVisitor().numberOfStatements(context.getTree()));
-    saveMetricOnFile(CoreMetrics.NCLOC, new LinesOfCodeVisitor().linesOfCode(context.getTree()));
+    saveMetricOnFile(CoreMetrics.NCLOC, linesOfCodeVisitor.linesOfCode());
     saveMetricOnFile(CoreMetrics.FUNCTION_COMPLEXITY_DISTRIBUTION, methodComplexityDistribution.build());
 
     RangeDistributionBuilder fileComplexityDistribution = new RangeDistributionBuilder(LIMITS_COMPLEXITY_FILES);
@@ -119,11 +159,10 @@ public class Measurer extends SubscriptionVisitor {
     return sensorContext.runtime().getProduct() == SonarProduct.SONARLINT;
   }
 
-  private CommentLinesVisitor createCommentLineVisitorAndFindNoSonar(JavaFileScannerContext context) {
-    CommentLinesVisitor commentLinesVisitor = new CommentLinesVisitor();
-    commentLinesVisitor.analyzeCommentLines(context.getTree());
-    noSonarFilter.noSonarInFile(sonarFile, commentLinesVisitor.noSonarLines());
-    return commentLinesVisitor;
+  private void createCommentLineVisitorAndFindNoSonar(JavaFileScannerContext context) {
+    CommentLinesVisitor visitor = new CommentLinesVisitor();
+    visitor.analyzeCommentLines(context.getTree());
+    noSonarFilter.noSonarInFile(sonarFile, visitor.noSonarLines());
   }
 
   @Override
@@ -135,24 +174,45 @@ public class Measurer extends SubscriptionVisitor {
     if (tree.is(Tree.Kind.NEW_CLASS) && ((NewClassTree) tree).classBody() != null) {
       classes--;
     }
-    if (tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR) && classTrees.peek().simpleName() != null) {
-      //don't count methods in anonymous classes.
-      MethodTree methodTree = (MethodTree) tree;
-      methods++;
-      int methodComplexity = context.getComplexityNodes(methodTree).size();
-      methodComplexityDistribution.add(methodComplexity);
-      complexityInMethods += methodComplexity;
+    if (tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR) || ComplexityVisitor.isNestedScope(tree)) {
+      complexityScopes.push(new int[1]);
+    }
+    if (ComplexityVisitor.isComplexityNode(tree)) {
+      addComplexity();
     }
-
   }
 
   @Override
   public void leaveNode(Tree tree) {
+    if (tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)) {
+      int methodComplexity = complexityScopes.pop()[0];
+      if (classTrees.peek().simpleName() != null) {
+        //don't count methods in anonymous classes.
+        methods++;
+        methodComplexityDistribution.add(methodComplexity);
+        complexityInMethods += methodComplexity;
+      }
+    } else if (ComplexityVisitor.isNestedScope(tree)) {
+      complexityScopes.pop();
+    }
     if (isClassTree(tree)) {
       classTrees.pop();
     }
   }
 
+  @Override
+  public void visitToken(SyntaxToken syntaxToken) {
+    linesOfCodeVisitor.visitToken(syntaxToken);
+    commentLinesVisitor.visitToken(syntaxToken);
+  }
+
+  private void addComplexity() {
+    fileComplexity++;
+    if (!complexityScopes.isEmpty()) {
+      complexityScopes.peek()[0]++;
+    }
+  }
+
   private static boolean isClassTree(Tree tree) {
     return tree.is(Tree.Kind.CLASS) || tree.is(Tree.Kind.INTERFACE) || tree.is(Tree.Kind.ENUM) || tree.is(Tree.Kind.ANNOTATION_TYPE);
   }
@@ -26,12 +26,14 @@ import com.google.gson.Gson;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.ScannerSide;
@@ -39,6 +41,7 @@ import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputPath;
+import org.sonar.api.batch.rule.ActiveRule;
 import org.sonar.api.batch.rule.CheckFactory;
 import org.sonar.api.batch.rule.Checks;
 import org.sonar.api.batch.sensor.SensorContext;
@@ -48,6 +51,8 @@ import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.measures.Metric;
 import org.sonar.api.rule.RuleKey;
+import org.sonar.java.filters.SonarJavaIssueFilter;
+import org.sonar.java.se.ExplorationStrategy;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonarsource.api.sonarlint.SonarLintSide;
@@ -62,6 +67,16 @@ public class SonarComponents {
   public static final Metric<String> FEEDBACK_METRIC = new Metric.Builder("sonarjava_feedback", "SonarJava feedback", Metric.ValueType.DATA).setHidden(true).create();
   public static final String COLLECT_ANALYSIS_ERRORS_KEY = "sonar.java.collectAnalysisErrors";
   public static final String FAIL_ON_EXCEPTION_KEY = "sonar.java.failOnException";
+  public static final String PARSING_THREADS_KEY = "sonar.java.parsing.threads";
+  public static final String CLASS_FILE_CACHE_KEY = "sonar.java.classFileCache";
+  public static final String CLASS_FILE_CACHE_PATH_KEY = "sonar.java.classFileCache.path";
+  public static final String INCREMENTAL_ANALYSIS_KEY = "sonar.java.incrementalAnalysis";
+  public static final String BEHAVIOR_STORE_KEY = "sonar.java.se.behaviorStore";
+  public static final String BEHAVIOR_SUMMARIES_KEY = "sonar.java.se.behaviorSummaries";
+  public static final String PROFILING_KEY = "sonar.java.profiling";
+  public static final String FILE_TIME_BUDGET_KEY = "sonar.java.timeBudget.file";
+  public static final String METHOD_TIME_BUDGET_KEY = "sonar.java.timeBudget.method";
+  public static final String EXPLORATION_STRATEGY_KEY = "sonar.java.se.explorationStrategy";
   /**
    * Approximate limit of feedback of 200ko to roughly 100_000 characters of useful feedback.
    * This does not take into account eventual overhead of serialization.
@@ -69,6 +84,14 @@ public class SonarComponents {
   private static final int ERROR_SERIALIZATION_LIMIT = 100_000;
 
   private final FileLinesContextFactory fileLinesContextFactory;
+  /**
+   * Content of the file being analyzed, read by the parser and shared with the checks. Only accessed by the analysis thread.
+   */
+  private final Map<File, FileContent> fileContents = new HashMap<>();
+  /**
+   * Input files of the analysis by file, to not query the file system each time an issue is reported.
+   */
+  private final Map<File, InputFile> inputFiles = new ConcurrentHashMap<>();
   private final JavaTestClasspath javaTestClasspath;
   private final CheckFactory checkFactory;
   @Nullable
@@ -82,6 +105,10 @@ public class SonarComponents {
   @VisibleForTesting
   public List<AnalysisError> analysisErrors;
   private int errorsSize = 0;
+  @Nullable
+  private BiConsumer<AnalyzerMessage, RuleKey> issueRecorder;
+  @Nullable
+  private SonarJavaIssueFilter issueFilter;
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
                          JavaClasspath javaClasspath, JavaTestClasspath javaTestClasspath,
@@ -139,8 +166,24 @@ public class SonarComponents {
     this.context = context;
   }
 
+  /**
+   * @param files input files of the analysis, found by {@link #inputFromIOFile(File)} without querying the file system
+   */
+  public void registerInputFiles(Iterable<InputFile> files) {
+    for (InputFile inputFile : files) {
+      inputFiles.put(inputFile.file(), inputFile);
+    }
+  }
+
   public InputFile inputFromIOFile(File file) {
-    return fs.inputFile(fs.predicates().is(file));
+    InputFile inputFile = inputFiles.get(file);
+    if (inputFile == null) {
+      inputFile = fs.inputFile(fs.predicates().is(file));
+      if (inputFile != null) {
+        inputFiles.put(file, inputFile);
+      }
+    }
+    return inputFile;
   }
 
   public int fileLength(File file) {
@@ -179,6 +222,23 @@ public class SonarComponents {
     return javaTestClasspath.getElements();
   }
 
+  /**
+   * Directories of the compiled main files of the module, part of {@link #getJavaClasspath()}.
+   */
+  public List<File> getJavaBinaryDirs() {
+    if (javaClasspath == null) {
+      return Lists.newArrayList();
+    }
+    return javaClasspath.getBinaryDirs();
+  }
+
+  /**
+   * Directories of the compiled test files of the module, part of {@link #getJavaTestClasspath()}.
+   */
+  public List<File> getJavaTestBinaryDirs() {
+    return javaTestClasspath.getBinaryDirs();
+  }
+
   public void registerCheckClasses(String repositoryKey, Iterable<Class<? extends JavaCheck>> checkClasses) {
     Checks<JavaCheck> createdChecks = checkFactory.<JavaCheck>create(repositoryKey).addAnnotatedChecks(checkClasses);
     checks.add(createdChecks);
@@ -237,14 +297,43 @@ public class SonarComponents {
       return;
     }
     File file = analyzerMessage.getFile();
+    Integer line = analyzerMessage.getLine();
+    if (issueFilter != null && line != null && issueFilter.isSuppressed(file, key, line)) {
+      return;
+    }
     InputPath inputPath = inputPathFromIOFile(file);
     if (inputPath == null) {
       return;
     }
+    if (issueRecorder != null) {
+      issueRecorder.accept(analyzerMessage, key);
+    }
     Double cost = analyzerMessage.getCost();
     reportIssue(analyzerMessage, key, inputPath, cost);
   }
 
+  /**
+   * @param issueRecorder notified of every issue reported on behalf of a rule, or null to stop recording
+   */
+  public void setIssueRecorder(@Nullable BiConsumer<AnalyzerMessage, RuleKey> issueRecorder) {
+    this.issueRecorder = issueRecorder;
+  }
+
+  /**
+   * @param issueFilter asked whether issues are suppressed before they are created, or null to report all the issues
+   */
+  public void setIssueFilter(@Nullable SonarJavaIssueFilter issueFilter) {
+    this.issueFilter = issueFilter;
+  }
+
+  public boolean isIssueSuppressed(File file, JavaCheck check, int line) {
+    if (issueFilter == null || line <= 0) {
+      return false;
+    }
+    RuleKey key = getRuleKey(check);
+    return key != null && issueFilter.isSuppressed(file, key, line);
+  }
+
   @VisibleForTesting
   void reportIssue(AnalyzerMessage analyzerMessage, RuleKey key, InputPath inputPath, Double cost) {
     Preconditions.checkNotNull(context);
@@ -259,7 +348,8 @@ public class SonarComponents {
       }
       issue.setPrimaryLocation((InputFile) inputPath, analyzerMessage.getMessage(), textSpan.startLine, textSpan.startCharacter, textSpan.endLine, textSpan.endCharacter);
     }
-    issue.addFlow(inputFromIOFile(analyzerMessage.getFile()), analyzerMessage.flows).save();
+    InputFile inputFile = inputPath instanceof InputFile ? (InputFile) inputPath : inputFromIOFile(analyzerMessage.getFile());
+    issue.addFlow(inputFile, analyzerMessage.flows).save();
   }
 
   public boolean reportAnalysisError(RecognitionException re, File file) {
@@ -278,32 +368,53 @@ public class SonarComponents {
     return context.runtime().getProduct() == SonarProduct.SONARLINT;
   }
 
+  /**
+   * Content of the file: the one retained while the file is analyzed, or else read again without being kept.
+   */
   public String fileContent(File file) {
-    try {
-      return inputFromIOFile(file).contents();
-    } catch (IOException e) {
-      throw new AnalysisException("Unable to read file "+file, e);
-    }
+    return content(file).content();
   }
 
   public List<String> fileLines(File file) {
-    List<String> lines = new ArrayList<>();
-    try(Scanner scanner = new Scanner(getInputStream(file), getCharset(file).name())) {
-      while (scanner.hasNextLine()) {
-        lines.add(scanner.nextLine());
-      }
+    return content(file).lines();
+  }
+
+  private FileContent content(File file) {
+    FileContent retained = fileContents.get(file);
+    return retained != null ? retained : new FileContent(readFileContent(file));
+  }
+
+  /**
+   * Reads the content of the file, without keeping it: to be used when a file is not analyzed, as when computing its fingerprint.
+   */
+  public String readFileContent(File file) {
+    return readFileContent(inputFromIOFile(file));
+  }
+
+  /**
+   * Reads the content of an input file already resolved, without querying the file system: can be called by other threads
+   * than the one of the analysis.
+   */
+  public String readFileContent(InputFile inputFile) {
+    try {
+      return inputFile.contents();
     } catch (IOException e) {
-      throw new AnalysisException("Unable to read file "+file, e);
+      throw new AnalysisException("Unable to read file " + inputFile, e);
     }
-    return lines;
   }
 
-  private InputStream getInputStream(File file) throws IOException {
-    return inputFromIOFile(file).inputStream();
+  /**
+   * Shares the content read for parsing with the checks of the file, until {@link #releaseFileContent(File)} is called.
+   */
+  public void retainFileContent(File file, String content) {
+    fileContents.put(file, new FileContent(content));
   }
 
-  private Charset getCharset(File file) {
-    return inputFromIOFile(file).charset();
+  /**
+   * To be called once the analysis of the file is complete: its content is read again if needed later on.
+   */
+  public void releaseFileContent(File file) {
+    fileContents.remove(file);
   }
 
   public boolean analysisCancelled() {
@@ -329,6 +440,104 @@ public class SonarComponents {
     return context.config().getBoolean(FAIL_ON_EXCEPTION_KEY).orElse(false);
   }
 
+  /**
+   * Number of threads used to parse files ahead of the visitors. Only parsing runs on these threads: semantic analysis,
+   * symbolic execution and checks always run on the analysis thread. 1 (the default) means files are parsed by the
+   * analysis thread.
+   */
+  public int parsingThreads() {
+    return Math.max(1, context.config().getInt(PARSING_THREADS_KEY).orElse(1));
+  }
+
+  /**
+   * Directory where library class files are kept from one analysis to the other, or null when this cache is disabled.
+   */
+  @CheckForNull
+  public File classFileCacheDirectory() {
+    if (context == null || isSonarLintContext() || !context.config().getBoolean(CLASS_FILE_CACHE_KEY).orElse(false)) {
+      return null;
+    }
+    return context.config().get(CLASS_FILE_CACHE_PATH_KEY).map(File::new).orElseGet(() -> new File(workDir(), "sonarjava-classfiles"));
+  }
+
+  /**
+   * Directory where method behaviors computed by symbolic execution are kept for the next analysis, or null when disabled.
+   */
+  @CheckForNull
+  public File behaviorStoreDirectory() {
+    if (context == null || isSonarLintContext() || !context.config().getBoolean(BEHAVIOR_STORE_KEY).orElse(false)) {
+      return null;
+    }
+    return new File(workDir(), "sonarjava-behaviors");
+  }
+
+  /**
+   * File of method behaviors precomputed for libraries, or null when not provided.
+   */
+  @CheckForNull
+  public File behaviorSummaries() {
+    if (context == null) {
+      return null;
+    }
+    return context.config().get(BEHAVIOR_SUMMARIES_KEY).map(File::new).orElse(null);
+  }
+
+  /**
+   * Directory where the issues of each file are kept for the next analysis, or null when incremental analysis is disabled.
+   */
+  @CheckForNull
+  public File analysisResultsDirectory() {
+    if (context == null || isSonarLintContext() || !context.config().getBoolean(INCREMENTAL_ANALYSIS_KEY).orElse(false)) {
+      return null;
+    }
+    return new File(workDir(), "sonarjava-results");
+  }
+
+  /**
+   * Time budget in milliseconds of the analysis of a file, 0 (the default) for none.
+   */
+  public long fileTimeBudget() {
+    if (context == null) {
+      return 0L;
+    }
+    return Math.max(0L, context.config().getLong(FILE_TIME_BUDGET_KEY).orElse(0L));
+  }
+
+  /**
+   * Time budget in milliseconds of the symbolic execution of a method, 0 (the default) for none.
+   */
+  public long methodTimeBudget() {
+    if (context == null) {
+      return 0L;
+    }
+    return Math.max(0L, context.config().getLong(METHOD_TIME_BUDGET_KEY).orElse(0L));
+  }
+
+  /**
+   * Order in which symbolic execution explores the paths of a method, depth first by default.
+   */
+  public ExplorationStrategy explorationStrategy() {
+    if (context == null) {
+      return ExplorationStrategy.DEPTH_FIRST;
+    }
+    return ExplorationStrategy.fromName(context.config().get(EXPLORATION_STRATEGY_KEY).orElse(null));
+  }
+
+  /**
+   * Directory where the time and memory spent in each phase, rule and file are reported, or null when profiling is disabled.
+   */
+  @CheckForNull
+  public File profilingDirectory() {
+    if (context == null || isSonarLintContext() || !context.config().getBoolean(PROFILING_KEY).orElse(false)) {
+      return null;
+    }
+    return new File(workDir(), "sonarjava-profiling");
+  }
+
+  public Collection<ActiveRule> activeRules() {
+    return context.activeRules().findAll();
+  }
+
   private boolean shouldCollectAnalysisErrors() {
     return context.config().getBoolean(COLLECT_ANALYSIS_ERRORS_KEY).orElse(false);
   }
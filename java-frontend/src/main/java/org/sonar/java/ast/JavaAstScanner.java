@@ -21,18 +21,30 @@ package org.sonar.java.ast;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.api.typed.ActionParser;
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.AnalysisProfiler;
+import org.sonar.java.AnalysisWatchdog;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.java.model.JavaVersionImpl;
@@ -47,6 +59,10 @@ public class JavaAstScanner {
   private final ActionParser<Tree> parser;
   private final SonarComponents sonarComponents;
   private VisitorsBridge visitor;
+  @Nullable
+  private AnalysisProfiler profiler;
+  @Nullable
+  private AnalysisWatchdog watchdog;
 
   public JavaAstScanner(ActionParser<Tree> parser, @Nullable SonarComponents sonarComponents) {
     this.parser = parser;
@@ -59,17 +75,29 @@ public class JavaAstScanner {
 
     boolean successfullyCompleted = false;
     boolean cancelled = false;
+    int threads = parsingThreads();
+    ExecutorService parsingExecutor = null;
     try {
-      for (File file : files) {
+      Iterator<ParsedFile> parsedFiles;
+      if (threads > 1) {
+        parsingExecutor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("java-parser-%d").setDaemon(true).build());
+        parsedFiles = new ParsingLookahead(files.iterator(), parsingExecutor, threads * 2);
+      } else {
+        parsedFiles = files.stream().map(file -> parse(parser, file, inputFile(file))).iterator();
+      }
+      while (parsedFiles.hasNext()) {
         if (analysisCancelled()) {
           cancelled = true;
           break;
         }
-        simpleScan(file);
+        simpleScan(parsedFiles.next());
         progressReport.nextFile();
       }
       successfullyCompleted = !cancelled;
     } finally {
+      if (parsingExecutor != null) {
+        parsingExecutor.shutdownNow();
+      }
       if (successfullyCompleted) {
         progressReport.stop();
       } else {
@@ -83,17 +111,56 @@ public class JavaAstScanner {
     return sonarComponents != null && sonarComponents.analysisCancelled();
   }
 
-  private void simpleScan(File file) {
-    visitor.setCurrentFile(file);
+  private int parsingThreads() {
+    return sonarComponents == null ? 1 : sonarComponents.parsingThreads();
+  }
+
+  /**
+   * Input files are resolved by the analysis thread: parsing threads only read their content.
+   */
+  @Nullable
+  private InputFile inputFile(File file) {
+    return sonarComponents == null ? null : sonarComponents.inputFromIOFile(file);
+  }
+
+  private ParsedFile parse(ActionParser<Tree> fileParser, File file, @Nullable InputFile inputFile) {
+    AnalysisProfiler.Measure measure = profiler == null ? null : profiler.start();
+    long start = System.nanoTime();
     try {
-      String fileContent = getFileContent(file);
+      String fileContent = getFileContent(inputFile);
       Tree ast;
       if(fileContent.isEmpty()) {
-        ast = parser.parse(file);
+        ast = fileParser.parse(file);
       } else {
-        ast = parser.parse(fileContent);
+        ast = fileParser.parse(fileContent);
+      }
+      return new ParsedFile(file, fileContent, ast, null, System.nanoTime() - start);
+    } catch (Exception e) {
+      return new ParsedFile(file, null, null, e, System.nanoTime() - start);
+    } catch (StackOverflowError error) {
+      LOG.error("A stack overflow error occured while analyzing file: " + file.getAbsolutePath(), error);
+      throw error;
+    } finally {
+      if (measure != null) {
+        profiler.recordFile(AnalysisProfiler.Phase.PARSE, file, measure);
+      }
+    }
+  }
+
+  private void simpleScan(ParsedFile parsedFile) {
+    File file = parsedFile.file;
+    visitor.setCurrentFile(file);
+    if (watchdog != null) {
+      watchdog.startFile(file, parsedFile.parseNanos);
+    }
+    if (sonarComponents != null && parsedFile.content != null) {
+      sonarComponents.retainFileContent(file, parsedFile.content);
+    }
+    try {
+      if (parsedFile.failure != null) {
+        throw parsedFile.failure;
       }
-      visitor.visitFile(ast);
+      visitor.visitFile(parsedFile.ast);
     } catch (RecognitionException e) {
       checkInterrupted(e);
       LOG.error("Unable to parse source file : " + file.getAbsolutePath());
@@ -106,14 +173,22 @@ public class JavaAstScanner {
     } catch (StackOverflowError error) {
       LOG.error("A stack overflow error occured while analyzing file: " + file.getAbsolutePath(), error);
       throw error;
+    } finally {
+      if (watchdog != null) {
+        watchdog.endFile();
+      }
+      if (sonarComponents != null) {
+        // content read for parsing was shared with the checks of the file
+        sonarComponents.releaseFileContent(file);
+      }
     }
   }
 
-  private String getFileContent(File file) {
+  private String getFileContent(@Nullable InputFile inputFile) {
     if(sonarComponents == null) {
       return "";
     }
-    return sonarComponents.fileContent(file);
+    return sonarComponents.readFileContent(inputFile);
   }
 
   private static void checkInterrupted(Exception e) {
@@ -136,10 +211,95 @@ public class JavaAstScanner {
     return "SonarQube is unable to analyze file : '" + file.getAbsolutePath() + "'";
   }
 
+  private static class ParsedFile {
+    private final File file;
+    /**
+     * Content read for parsing, kept by the parsed file rather than by {@link SonarComponents}: files parsed ahead
+     * and never analyzed, when the analysis is cancelled, leave nothing behind.
+     */
+    @Nullable
+    private final String content;
+    @Nullable
+    private final Tree ast;
+    @Nullable
+    private final Exception failure;
+    private final long parseNanos;
+
+    ParsedFile(File file, @Nullable String content, @Nullable Tree ast, @Nullable Exception failure, long parseNanos) {
+      this.file = file;
+      this.content = content;
+      this.ast = ast;
+      this.failure = failure;
+      this.parseNanos = parseNanos;
+    }
+  }
+
+  /**
+   * Parses up to {@code lookahead} files on a worker pool while the visitors consume the previous ones.
+   * Files are handed out in their original order, so semantic analysis and checks still run sequentially and
+   * produce the same results as a single-threaded analysis. {@link JavaParser} keeps internal state, hence one
+   * parser per worker thread.
+   */
+  private class ParsingLookahead implements Iterator<ParsedFile> {
+    private final ThreadLocal<ActionParser<Tree>> parsers = ThreadLocal.withInitial(JavaParser::createParser);
+    private final Iterator<File> files;
+    private final ExecutorService executor;
+    private final Deque<Future<ParsedFile>> pending = new ArrayDeque<>();
+
+    ParsingLookahead(Iterator<File> files, ExecutorService executor, int lookahead) {
+      this.files = files;
+      this.executor = executor;
+      for (int i = 0; i < lookahead; i++) {
+        submitNext();
+      }
+    }
+
+    private void submitNext() {
+      if (files.hasNext()) {
+        File file = files.next();
+        InputFile inputFile = inputFile(file);
+        pending.add(executor.submit(() -> parse(parsers.get(), file, inputFile)));
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !pending.isEmpty();
+    }
+
+    @Override
+    public ParsedFile next() {
+      Future<ParsedFile> next = pending.poll();
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      submitNext();
+      try {
+        return next.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new AnalysisException("Analysis cancelled", e);
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new AnalysisException("Unable to parse file", e.getCause());
+      }
+    }
+  }
+
   public void setVisitorBridge(VisitorsBridge visitor) {
     this.visitor = visitor;
   }
 
+  public void setAnalysisProfiler(AnalysisProfiler profiler) {
+    this.profiler = profiler;
+    visitor.setAnalysisProfiler(profiler);
+  }
+
+  public void setAnalysisWatchdog(AnalysisWatchdog watchdog) {
+    this.watchdog = watchdog;
+    visitor.setAnalysisWatchdog(watchdog);
+  }
+
   @VisibleForTesting
   public static void scanSingleFileForTests(File file, VisitorsBridge visitorsBridge) {
     scanSingleFileForTests(file, visitorsBridge, new JavaVersionImpl());
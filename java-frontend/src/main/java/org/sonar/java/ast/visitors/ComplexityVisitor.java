@@ -19,28 +19,32 @@
  */
 package org.sonar.java.ast.visitors;
 
+import com.google.common.collect.ImmutableList;
 import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.java.ast.api.JavaKeyword;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
 import org.sonar.plugins.java.api.tree.CaseLabelTree;
-import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.ConditionalExpressionTree;
-import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
-import org.sonar.plugins.java.api.tree.ForEachStatement;
-import org.sonar.plugins.java.api.tree.ForStatementTree;
-import org.sonar.plugins.java.api.tree.IfStatementTree;
 import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
-import org.sonar.plugins.java.api.tree.WhileStatementTree;
 
 public class ComplexityVisitor extends BaseTreeVisitor {
 
+  /**
+   * Kinds of the trees which can add one to the cyclomatic complexity, see {@link #isComplexityNode(Tree)}.
+   */
+  public static final List<Tree.Kind> COMPLEXITY_KINDS = ImmutableList.of(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR, Tree.Kind.LAMBDA_EXPRESSION,
+    Tree.Kind.CASE_LABEL, Tree.Kind.FOR_EACH_STATEMENT, Tree.Kind.FOR_STATEMENT, Tree.Kind.WHILE_STATEMENT, Tree.Kind.DO_STATEMENT,
+    Tree.Kind.IF_STATEMENT, Tree.Kind.CONDITIONAL_EXPRESSION, Tree.Kind.CONDITIONAL_AND, Tree.Kind.CONDITIONAL_OR);
+  private static final String DEFAULT_KEYWORD = JavaKeyword.DEFAULT.getValue();
+
   private List<Tree> blame = new ArrayList<>();
   private Tree root;
-  private static final String DEFAULT_KEYWORD = JavaKeyword.DEFAULT.getValue();
 
   public List<Tree> getNodes(Tree tree) {
     blame.clear();
@@ -51,78 +55,56 @@ public class ComplexityVisitor extends BaseTreeVisitor {
   }
 
   @Override
-  public void visitMethod(MethodTree tree) {
-    if (tree.block() != null) {
-      blame.add(tree.simpleName().identifierToken());
+  protected void scan(@Nullable Tree tree) {
+    if (tree == null || (tree != root && isNestedScope(tree) && !includesNestedScopes(root))) {
+      return;
     }
-    super.visitMethod(tree);
-  }
-
-  @Override
-  public void visitClass(ClassTree tree) {
-    if(root.is(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.COMPILATION_UNIT)) {
-      super.visitClass(tree);
+    if (isComplexityNode(tree)) {
+      blame.add(blamedToken(tree));
     }
+    super.scan(tree);
   }
 
-  @Override
-  public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
-    if(root.is(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.COMPILATION_UNIT) || lambdaExpressionTree.equals(root)) {
-      blame.add(lambdaExpressionTree.arrowToken());
-      super.visitLambdaExpression(lambdaExpressionTree);
+  /**
+   * Whether the tree adds one to the cyclomatic complexity: methods with a body, lambdas, branches, loops and
+   * conditional operators. The default label of a switch does not count.
+   */
+  public static boolean isComplexityNode(Tree tree) {
+    if (tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)) {
+      return ((MethodTree) tree).block() != null;
     }
-  }
-
-  @Override
-  public void visitCaseLabel(CaseLabelTree tree) {
-    if (!DEFAULT_KEYWORD.equals(tree.caseOrDefaultKeyword().text())) {
-      // default keyword does not count in complexity
-      blame.add(tree.firstToken());
+    if (tree.is(Tree.Kind.CASE_LABEL)) {
+      return !DEFAULT_KEYWORD.equals(((CaseLabelTree) tree).caseOrDefaultKeyword().text());
     }
-    super.visitCaseLabel(tree);
+    return COMPLEXITY_KINDS.contains(tree.kind());
   }
 
-  @Override
-  public void visitForEachStatement(ForEachStatement tree) {
-    blame.add(tree.firstToken());
-    super.visitForEachStatement(tree);
+  /**
+   * Classes, anonymous ones included, and lambdas have a complexity of their own: it is part of the complexity of an
+   * enclosing file or type, see {@link #includesNestedScopes(Tree)}, but not of the one of an enclosing method or lambda.
+   */
+  public static boolean isNestedScope(Tree tree) {
+    return tree.is(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.LAMBDA_EXPRESSION);
   }
 
-  @Override
-  public void visitForStatement(ForStatementTree tree) {
-    blame.add(tree.firstToken());
-    super.visitForStatement(tree);
+  public static boolean includesNestedScopes(Tree tree) {
+    return tree.is(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.COMPILATION_UNIT);
   }
 
-  @Override
-  public void visitWhileStatement(WhileStatementTree tree) {
-    blame.add(tree.firstToken());
-    super.visitWhileStatement(tree);
-  }
-
-  @Override
-  public void visitDoWhileStatement(DoWhileStatementTree tree) {
-    blame.add(tree.firstToken());
-    super.visitDoWhileStatement(tree);
-  }
-
-  @Override
-  public void visitIfStatement(IfStatementTree tree) {
-    blame.add(tree.firstToken());
-    super.visitIfStatement(tree);
-  }
-
-  @Override
-  public void visitConditionalExpression(ConditionalExpressionTree tree) {
-    blame.add(tree.questionToken());
-    super.visitConditionalExpression(tree);
-  }
-
-  @Override
-  public void visitBinaryExpression(BinaryExpressionTree tree) {
-    if (tree.is(Tree.Kind.CONDITIONAL_AND, Tree.Kind.CONDITIONAL_OR)) {
-      blame.add(tree.operatorToken());
+  private static SyntaxToken blamedToken(Tree tree) {
+    switch (tree.kind()) {
+      case METHOD:
+      case CONSTRUCTOR:
+        return ((MethodTree) tree).simpleName().identifierToken();
+      case LAMBDA_EXPRESSION:
+        return ((LambdaExpressionTree) tree).arrowToken();
+      case CONDITIONAL_EXPRESSION:
+        return ((ConditionalExpressionTree) tree).questionToken();
+      case CONDITIONAL_AND:
+      case CONDITIONAL_OR:
+        return ((BinaryExpressionTree) tree).operatorToken();
+      default:
+        return tree.firstToken();
     }
-    super.visitBinaryExpression(tree);
   }
 }
@@ -31,6 +31,7 @@ import org.sonar.api.measures.FileLinesContext;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.model.ModifiersUtils;
+import org.sonar.java.model.declaration.MethodTreeImpl;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -165,7 +166,10 @@ public class FileLinesVisitor extends SubscriptionVisitor {
       if(returnType == null || "void".equals(returnType.firstToken().text())) {
         executableLines.add(methodBody.closeBraceToken().line());
       }
-      return methodBody.body();
+      if (!methodBody.body().isEmpty()) {
+        // same CFG as the one of symbolic execution and of the rules
+        computeExecutableLines(((MethodTreeImpl) tree).cfg());
+      }
     }
     return Collections.emptyList();
   }
@@ -174,8 +178,11 @@ public class FileLinesVisitor extends SubscriptionVisitor {
     if(trees.isEmpty()) {
       return;
     }
+    computeExecutableLines(CFG.buildCFG(trees));
+  }
+
+  private void computeExecutableLines(CFG cfg) {
     // rely on cfg to get every instructions and get most of the token.
-    CFG cfg = CFG.buildCFG(trees);
     cfg.blocks()
       .stream()
       .flatMap(b->b.elements().stream())
@@ -35,6 +35,13 @@ public class LinesOfCodeVisitor extends SubscriptionVisitor{
   public int linesOfCode(Tree tree) {
     lines.clear();
     scanTree(tree);
+    return linesOfCode();
+  }
+
+  /**
+   * @return the number of lines of code of the tokens visited so far
+   */
+  public int linesOfCode() {
     return lines.size();
   }
 
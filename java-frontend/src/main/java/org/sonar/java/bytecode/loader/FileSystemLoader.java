@@ -23,10 +23,14 @@ import javax.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class FileSystemLoader implements Loader {
 
@@ -60,18 +64,29 @@ class FileSystemLoader implements Loader {
     if (baseDirPath == null) {
       throw new IllegalStateException("Loader closed");
     }
-    Path filePath = baseDirPath.resolve(name);
-    if (!filePath.toFile().exists()) {
-      return new byte[0];
-    }
-
     try {
-      return Files.readAllBytes(filePath);
+      // missing files are reported by the read itself, rather than checked beforehand
+      return Files.readAllBytes(baseDirPath.resolve(name));
     } catch (IOException e) {
       return new byte[0];
     }
   }
 
+  @Override
+  public Set<String> packages() {
+    if (baseDirPath == null) {
+      throw new IllegalStateException("Loader closed");
+    }
+    try (Stream<Path> files = Files.walk(baseDirPath)) {
+      return files
+        .filter(Files::isRegularFile)
+        .map(file -> Loader.packageName(baseDirPath.relativize(file).toString().replace(File.separatorChar, '/')))
+        .collect(Collectors.toSet());
+    } catch (IOException | UncheckedIOException e) {
+      throw new IllegalStateException("Unable to list " + baseDirPath, e);
+    }
+  }
+
   @Override
   public void close() {
     baseDirPath = null;
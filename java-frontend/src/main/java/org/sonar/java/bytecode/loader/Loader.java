@@ -20,6 +20,7 @@
 package org.sonar.java.bytecode.loader;
 
 import java.net.URL;
+import java.util.Set;
 
 /**
  * Specifies resource loading behavior.
@@ -46,10 +47,28 @@ interface Loader {
    */
   byte[] loadBytes(String name);
 
+  /**
+   * Lists the packages of this loader, i.e. the directories holding at least one resource, in internal form
+   * (e.g. <tt>org/sonar/java</tt>, or an empty string for the root directory).
+   *
+   * @return the packages of this loader
+   * @throws IllegalStateException if the content of the loader can not be listed
+   */
+  Set<String> packages();
+
   /**
    * Closes this loader, so that it can no longer be used to load new resources.
    * If loader is already closed, then invoking this method has no effect.
    */
   void close();
 
+  /**
+   * @param name resource name
+   * @return the package of the resource, in the form returned by {@link #packages()}
+   */
+  static String packageName(String name) {
+    int lastSlash = name.lastIndexOf('/');
+    return lastSlash < 0 ? "" : name.substring(0, lastSlash);
+  }
+
 }
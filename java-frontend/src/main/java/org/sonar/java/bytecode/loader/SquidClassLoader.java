@@ -19,12 +19,8 @@
  */
 package org.sonar.java.bytecode.loader;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Iterators;
 import com.google.common.io.ByteStreams;
-import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
@@ -32,11 +28,13 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.Set;
 import javax.annotation.CheckForNull;
 import org.apache.commons.lang.ArrayUtils;
 import org.sonar.api.utils.log.Logger;
@@ -52,7 +50,11 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   private static final Logger LOG = Loggers.get(SquidClassLoader.class);
 
   private final List<Loader> loaders;
-  private final LoadingCache<String, Optional<Loader>> loaderCache;
+  /**
+   * Loaders holding each package, in classpath order. Built once, so that resources are looked up only in the loaders
+   * which can contain them, and missing resources are found missing without querying any loader.
+   */
+  private final Map<String, List<Loader>> loadersByPackage;
 
   /**
    * @param files ordered list of files and directories from which to load classes and resources
@@ -60,15 +62,16 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   public SquidClassLoader(List<File> files) {
     super(computeParent());
     loaders = new ArrayList<>();
+    loadersByPackage = new HashMap<>();
     for (File file : files) {
       if (file.exists()) {
         try {
           if (file.isDirectory()) {
-            loaders.add(new FileSystemLoader(file));
+            addLoader(new FileSystemLoader(file));
           } else if (file.getName().endsWith(".jar")) {
-            loaders.add(new JarLoader(file));
+            addLoader(new JarLoader(file));
           } else if (file.getName().endsWith(".aar")) {
-            loaders.add(new AarLoader(file));
+            addLoader(new AarLoader(file));
           }
         } catch (IllegalStateException e) {
           LOG.warn("Unable to load classes from '{}'", file.getPath());
@@ -76,15 +79,20 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
         }
       }
     }
+  }
 
-    loaderCache = CacheBuilder.newBuilder()
-      .maximumSize(5000)
-      .build(new CacheLoader<String, Optional<Loader>>() {
-        @Override
-        public Optional<Loader> load(String key) {
-          return findLoaderWithResource(key);
-        }
-      });
+  private void addLoader(Loader loader) {
+    Set<String> packages;
+    try {
+      packages = loader.packages();
+    } catch (IllegalStateException e) {
+      loader.close();
+      throw e;
+    }
+    loaders.add(loader);
+    for (String packageName : packages) {
+      loadersByPackage.computeIfAbsent(packageName, k -> new ArrayList<>(1)).add(loader);
+    }
   }
 
   private static ClassLoader computeParent() {
@@ -98,7 +106,7 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   @Override
   protected Class findClass(String name) throws ClassNotFoundException {
     String resourceName = name.replace('.', '/') + ".class";
-    for (Loader loader : loaders) {
+    for (Loader loader : loadersFor(resourceName)) {
       byte[] classBytes = loader.loadBytes(resourceName);
       if (ArrayUtils.isNotEmpty(classBytes)) {
         // TODO Godin: definePackage ?
@@ -110,27 +118,19 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
 
   @Override
   public URL findResource(String name) {
-    try {
-      return loaderCache.get(name).map(loader -> loader.findResource(name)).orElse(null);
-    } catch (ExecutionException | UncheckedExecutionException e) {
-      throw new IllegalStateException(e.getCause());
-    }
-  }
-
-  private Optional<Loader> findLoaderWithResource(String resourceName) {
-    for (Loader loader : loaders) {
-      URL url = loader.findResource(resourceName);
+    for (Loader loader : loadersFor(name)) {
+      URL url = loader.findResource(name);
       if (url != null) {
-        return Optional.of(loader);
+        return url;
       }
     }
-    return Optional.empty();
+    return null;
   }
 
   @Override
   protected Enumeration<URL> findResources(String name) throws IOException {
     List<URL> result = new ArrayList<>();
-    for (Loader loader : loaders) {
+    for (Loader loader : loadersFor(name)) {
       URL url = loader.findResource(name);
       if (url != null) {
         result.add(url);
@@ -139,6 +139,10 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
     return Iterators.asEnumeration(result.iterator());
   }
 
+  private List<Loader> loadersFor(String resourceName) {
+    return loadersByPackage.getOrDefault(Loader.packageName(resourceName), Collections.emptyList());
+  }
+
   /**
    * Read bytes representing class with name passed as an argument. Modify the class version in bytecode so ASM can read
    * returned array without issues.
@@ -148,7 +152,16 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
    */
   @CheckForNull
   public byte[] getBytesForClass(String className) {
-    try (InputStream is = getResourceAsStream(Convert.bytecodeName(className) + ".class")) {
+    String resourceName = Convert.bytecodeName(className) + ".class";
+    // read directly from the loaders, without going through an URL and its stream
+    for (Loader loader : loadersFor(resourceName)) {
+      byte[] classBytes = loader.loadBytes(resourceName);
+      if (ArrayUtils.isNotEmpty(classBytes)) {
+        return classBytes;
+      }
+    }
+    // classes of the JDK
+    try (InputStream is = getResourceAsStream(resourceName)) {
       if (is == null) {
         return null;
       }
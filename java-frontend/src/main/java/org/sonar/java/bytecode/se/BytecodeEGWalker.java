@@ -757,6 +757,7 @@ public class BytecodeEGWalker {
     SymbolicValue returnSV = instruction.hasReturnValue() ? constraintManager.createSymbolicValue(instruction) : null;
     String signature = instruction.fieldOrMethod.completeSignature();
     MethodBehavior methodInvokedBehavior = behaviorCache.get(signature);
+    methodBehavior.addDependency(signature, methodInvokedBehavior);
     enqueueUncheckedExceptions();
     // FIXME : empty yields here should not happen, for now act as if behavior was not resolved.
     if (methodInvokedBehavior != null && methodInvokedBehavior.isComplete() && !methodInvokedBehavior.yields().isEmpty()) {
@@ -47,7 +47,7 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
   @SuppressWarnings("unchecked")
   @Override
   public AVLTree<K, V> add(K e) {
-    return put(e, e, this);
+    return put(e, e.hashCode(), e, this);
   }
 
   @Override
@@ -60,14 +60,14 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
   public AVLTree<K, V> put(K key, V value) {
     Preconditions.checkNotNull(key);
     Preconditions.checkNotNull(value);
-    return put(key, value, this);
+    return put(key, key.hashCode(), value, this);
   }
 
   @SuppressWarnings("unchecked")
   @Override
   public AVLTree<K, V> remove(K key) {
     Preconditions.checkNotNull(key);
-    return remove(key, this);
+    return remove(key, key.hashCode(), this);
   }
 
   @SuppressWarnings("unchecked")
@@ -75,13 +75,17 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
   @Override
   public V get(K key) {
     Preconditions.checkNotNull(key);
-    final int h = key.hashCode();
-    AVLTree t = this;
+    return (V) get(key, key.hashCode(), this);
+  }
+
+  @Nullable
+  private static Object get(Object key, int h, AVLTree tree) {
+    AVLTree t = tree;
     while (!t.isEmpty()) {
-      final int c = t.key().hashCode();
+      final int c = t.keyHash();
       if (h == c) {
         t = searchInBucket(key, t);
-        return t == null ? null : (V) t.value();
+        return t == null ? null : t.value();
       } else if (h < c) {
         t = t.left();
       } else {
@@ -136,37 +140,42 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
 
   protected abstract Object key();
 
+  /**
+   * Hash code of the key, kept in the node so that searching the tree compares primitive values instead of calling
+   * {@link Object#hashCode()} on the key of each node.
+   */
+  protected abstract int keyHash();
+
   protected abstract Object value();
 
   protected abstract int height();
 
-  private static AVLTree put(Object key, Object value, AVLTree t) {
+  private static AVLTree put(Object key, int h, Object value, AVLTree t) {
     if (t.isEmpty()) {
-      return createNode(t, key, value, null, t);
+      return createNode(t, key, h, value, null, t);
     }
-    final int h = key.hashCode();
-    final int c = t.key().hashCode();
+    final int c = t.keyHash();
     if (h == c) {
       final AVLTree nextInBucket = t.nextInBucket();
       if (key.equals(t.key())) {
         if (value.equals(t.value())) {
           return t;
         }
-        return createNode(t.left(), key, value, nextInBucket, t.right());
+        return createNode(t.left(), key, h, value, nextInBucket, t.right());
       }
       final AVLTree nodeToReplace = searchInBucket(key, nextInBucket);
       if (nodeToReplace != null && value.equals(nodeToReplace.value())) {
         return t;
       }
-      return createNode(t.left(), key, value, createBucket(t.key(), t.value(), removeFromBucket(nextInBucket, nodeToReplace)), t.right());
+      return createNode(t.left(), key, h, value, createBucket(t, removeFromBucket(nextInBucket, nodeToReplace)), t.right());
     } else if (h < c) {
-      AVLTree left = put(key, value, t.left());
+      AVLTree left = put(key, h, value, t.left());
       if (left == t.left()) {
         return t;
       }
       return balance(left, t, t.right());
     } else {
-      AVLTree right = put(key, value, t.right());
+      AVLTree right = put(key, h, value, t.right());
       if (right == t.right()) {
         return t;
       }
@@ -174,17 +183,16 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
     }
   }
 
-  private static AVLTree remove(Object key, AVLTree t) {
+  private static AVLTree remove(Object key, int h, AVLTree t) {
     if (t.isEmpty()) {
       return t;
     }
-    final int h = key.hashCode();
-    final int c = t.key().hashCode();
+    final int c = t.keyHash();
     if (h == c) {
       final AVLTree nextInBucket = t.nextInBucket();
       if (key.equals(t.key())) {
         if (nextInBucket != null) {
-          return createNode(t.left(), nextInBucket.key(), nextInBucket.value(), nextInBucket.nextInBucket(), t.right());
+          return createNode(t.left(), nextInBucket.key(), c, nextInBucket.value(), nextInBucket.nextInBucket(), t.right());
         }
         return combineTrees(t.left(), t.right());
       }
@@ -192,15 +200,15 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
       if (nodeToRemove == null) {
         return t;
       }
-      return createNode(t.left(), t.key(), t.value(), removeFromBucket(nextInBucket, nodeToRemove), t.right());
+      return createNode(t.left(), t.key(), c, t.value(), removeFromBucket(nextInBucket, nodeToRemove), t.right());
     } else if (h < c) {
-      AVLTree left = remove(key, t.left());
+      AVLTree left = remove(key, h, t.left());
       if (left == t.left()) {
         return t;
       }
       return balance(left, t, t.right());
     } else {
-      AVLTree right = remove(key, t.right());
+      AVLTree right = remove(key, h, t.right());
       if (right == t.right()) {
         return t;
       }
@@ -262,11 +270,11 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
   }
 
   private static AVLTree createNode(AVLTree newLeft, AVLTree oldTree, AVLTree newRight) {
-    return new Node(newLeft, newRight, oldTree.key(), oldTree.value(), oldTree.nextInBucket(), incrementHeight(newLeft, newRight));
+    return new Node(newLeft, newRight, oldTree.key(), oldTree.value(), oldTree.nextInBucket(), incrementHeight(newLeft, newRight), oldTree.keyHash());
   }
 
-  private static Node createNode(AVLTree l, Object key, Object value, @Nullable AVLTree nextInBucket, AVLTree r) {
-    return new Node(l, r, key, value, nextInBucket, incrementHeight(l, r));
+  private static Node createNode(AVLTree l, Object key, int keyHash, Object value, @Nullable AVLTree nextInBucket, AVLTree r) {
+    return new Node(l, r, key, value, nextInBucket, incrementHeight(l, r), keyHash);
   }
 
   private static int incrementHeight(AVLTree l, AVLTree r) {
@@ -299,15 +307,15 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
     AVLTree result = null;
     while (c != null) {
       if (/* not the instance to remove: */ c != nodeToRemove) {
-        result = createBucket(c.key(), c.value(), result);
+        result = createBucket(c, result);
       }
       c = c.nextInBucket();
     }
     return result;
   }
 
-  private static Node createBucket(Object key, Object value, @Nullable AVLTree bucket) {
-    return new Node(AVLTree.EMPTY, AVLTree.EMPTY, key, value, bucket, 0);
+  private static Node createBucket(AVLTree oldNode, @Nullable AVLTree bucket) {
+    return new Node(AVLTree.EMPTY, AVLTree.EMPTY, oldNode.key(), oldNode.value(), bucket, 0, oldNode.keyHash());
   }
 
   @VisibleForTesting
@@ -317,16 +325,18 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
     private final int height;
 
     private final Object key;
+    private final int keyHash;
     private final Object value;
     @Nullable
     private final AVLTree nextInBucket;
 
     private int hashCode;
 
-    public Node(AVLTree left, AVLTree right, Object key, Object value, @Nullable AVLTree nextInBucket, int height) {
+    Node(AVLTree left, AVLTree right, Object key, Object value, @Nullable AVLTree nextInBucket, int height, int keyHash) {
       this.left = left;
       this.right = right;
       this.key = key;
+      this.keyHash = keyHash;
       this.value = value;
       this.nextInBucket = nextInBucket;
       this.height = height;
@@ -352,6 +362,11 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
       return key;
     }
 
+    @Override
+    protected int keyHash() {
+      return keyHash;
+    }
+
     @Override
     protected Object value() {
       return value;
@@ -371,7 +386,7 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
     public int hashCode() {
       if (hashCode == 0) {
         // the key is multiplied by 31 to avoid K ^ V == 0 when K == V in case of set
-        this.hashCode = left.hashCode() + ((31 * key.hashCode()) ^ value.hashCode()) + right.hashCode() + (nextInBucket == null ? 0 : nextInBucket.hashCode());
+        this.hashCode = left.hashCode() + ((31 * keyHash) ^ value.hashCode()) + right.hashCode() + (nextInBucket == null ? 0 : nextInBucket.hashCode());
       }
       return hashCode;
     }
@@ -416,6 +431,11 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
       throw new UnsupportedOperationException();
     }
 
+    @Override
+    protected int keyHash() {
+      throw new UnsupportedOperationException();
+    }
+
     @Override
     protected Object value() {
       throw new UnsupportedOperationException();
@@ -472,7 +492,7 @@ abstract class AVLTree<K, V> implements PMap<K, V>, PSet<K> {
         return true;
       }
       sizeDifference++;
-      return Objects.equals(node.value(), tree.get(node.key()))
+      return Objects.equals(node.value(), get(node.key(), node.keyHash(), tree))
         && supersetOf(node.nextInBucket())
         && supersetOf(node.left())
         && supersetOf(node.right());
@@ -19,9 +19,17 @@
  */
 package org.sonar.java.filters;
 
+import java.io.File;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.IssueFilter;
 import org.sonar.plugins.java.api.JavaCheck;
 
 public interface SonarJavaIssueFilter extends JavaCheck, IssueFilter {
 
+  /**
+   * Tells, before the issue is created, whether an issue of the rule on the given line would be rejected by the filter.
+   * Only the last scanned file is known by the filter: issues on other files are never suppressed.
+   */
+  boolean isSuppressed(File file, RuleKey ruleKey, int line);
+
 }
@@ -38,6 +38,7 @@ import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
@@ -123,6 +124,9 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
   @Override
   public void reportIssueWithFlow(JavaCheck javaCheck, Tree syntaxNode, String message, Iterable<List<Location>> flows, @Nullable Integer cost) {
     throwIfEndOfAnalysisCheck(javaCheck);
+    if (isIssueSuppressed(javaCheck, syntaxNode)) {
+      return;
+    }
 
     reportIssue(createAnalyzerMessage(file, javaCheck, syntaxNode, null, message, flows, cost));
   }
@@ -135,11 +139,24 @@ public class DefaultJavaFileScannerContext implements JavaFileScannerContext {
   @Override
   public void reportIssue(JavaCheck javaCheck, Tree startTree, Tree endTree, String message, List<Location> secondary, @Nullable Integer cost) {
     throwIfEndOfAnalysisCheck(javaCheck);
+    if (isIssueSuppressed(javaCheck, startTree)) {
+      return;
+    }
 
     List<List<Location>> flows = secondary.stream().map(Collections::singletonList).collect(Collectors.toList());
     reportIssue(createAnalyzerMessage(file, javaCheck, startTree, endTree, message, flows, cost));
   }
 
+  @Override
+  public boolean isIssueSuppressed(JavaCheck javaCheck, int line) {
+    return sonarComponents != null && sonarComponents.isIssueSuppressed(file, javaCheck, line);
+  }
+
+  private boolean isIssueSuppressed(JavaCheck javaCheck, Tree startTree) {
+    SyntaxToken firstToken = startTree.firstToken();
+    return firstToken != null && isIssueSuppressed(javaCheck, firstToken.line());
+  }
+
   @Override
   public List<String> getFileLines() {
     return sonarComponents.fileLines(file);
@@ -25,40 +25,56 @@ import com.google.common.collect.ImmutableList;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.check.Rule;
 import org.sonar.java.AnalysisError;
+import org.sonar.java.AnalysisProfiler;
+import org.sonar.java.AnalysisResultCache;
+import org.sonar.java.AnalysisWatchdog;
 import org.sonar.java.EndOfAnalysisCheck;
 import org.sonar.java.ExceptionHandler;
 import org.sonar.java.IllegalRuleParameterException;
 import org.sonar.java.JavaVersionAwareVisitor;
+import org.sonar.java.Measurer;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.java.bytecode.ClassLoaderBuilder;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.filters.SonarJavaIssueFilter;
+import org.sonar.java.resolve.ClassFileCache;
+import org.sonar.java.resolve.ClassFileStore;
 import org.sonar.java.resolve.SemanticModel;
+import org.sonar.java.se.ExplorationStrategy;
 import org.sonar.java.se.SymbolicExecutionMode;
 import org.sonar.java.se.SymbolicExecutionVisitor;
 import org.sonar.java.se.xproc.BehaviorCache;
+import org.sonar.java.se.xproc.BehaviorStore;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public class VisitorsBridge {
@@ -67,6 +83,7 @@ public class VisitorsBridge {
 
   private final BehaviorCache behaviorCache;
   private final List<JavaFileScanner> allScanners;
+  private final List<JavaFileScanner> issueFilters;
   private List<JavaFileScanner> executableScanners;
   private final SonarComponents sonarComponents;
   private final boolean symbolicExecutionEnabled;
@@ -75,8 +92,24 @@ public class VisitorsBridge {
   protected JavaVersion javaVersion;
   private Set<String> classesNotFound = new TreeSet<>();
   private final SquidClassLoader classLoader;
+  private final ClassFileCache classFileCache;
   private ScannerRunner scannerRunner;
-  private static Predicate<JavaFileScanner> isIssuableSubscriptionVisitor = s -> s instanceof IssuableSubscriptionVisitor;
+  private List<JavaFileScanner> scannersForJavaVersion;
+  @Nullable
+  private AnalysisResultCache resultCache;
+  @Nullable
+  private AnalysisProfiler profiler;
+  @Nullable
+  private AnalysisWatchdog watchdog;
+  private final ExplorationStrategy explorationStrategy;
+  private ScannerRunner ruleFreeScannerRunner;
+  private List<JavaFileScanner> alwaysExecutedScanners;
+  private ScannerRunner alwaysExecutedScannerRunner;
+  private Map<String, JavaFileScanner> checksByRuleKey;
+  /**
+   * Visitors run by the traversal of the tree shared by the rules: the measures of the file are computed by the same traversal.
+   */
+  private static Predicate<JavaFileScanner> isSharedTraversalVisitor = s -> s instanceof IssuableSubscriptionVisitor || s instanceof Measurer;
 
   @VisibleForTesting
   public VisitorsBridge(JavaFileScanner visitor) {
@@ -95,19 +128,68 @@ public class VisitorsBridge {
         allScanners.add((JavaFileScanner) visitor);
       }
     }
-    this.executableScanners = allScanners.stream().filter(isIssuableSubscriptionVisitor.negate()).collect(Collectors.toList());
-    this.scannerRunner = new ScannerRunner(allScanners);
+    // issue filters scan each file before the checks, so that the issues they reject are dropped as soon as they are reported
+    this.issueFilters = allScanners.stream().filter(SonarJavaIssueFilter.class::isInstance).collect(Collectors.toList());
+    allScanners.removeAll(issueFilters);
+    this.executableScanners = allScanners.stream().filter(isSharedTraversalVisitor.negate()).collect(Collectors.toList());
+    this.scannersForJavaVersion = allScanners;
+    this.scannerRunner = new ScannerRunner(allScanners, null);
     this.sonarComponents = sonarComponents;
     this.classLoader = ClassLoaderBuilder.create(projectClasspath);
+    this.classFileCache = createClassFileCache(projectClasspath, sonarComponents, classLoader);
     this.symbolicExecutionEnabled = symbolicExecutionMode.isEnabled();
-    this.behaviorCache = new BehaviorCache(classLoader, symbolicExecutionMode.isCrossFileEnabled());
+    this.explorationStrategy = sonarComponents == null ? ExplorationStrategy.DEPTH_FIRST : sonarComponents.explorationStrategy();
+    this.behaviorCache = new BehaviorCache(classLoader, symbolicExecutionMode.isCrossFileEnabled(), createBehaviorStore(projectClasspath, sonarComponents, classLoader));
+  }
+
+  private static BehaviorStore createBehaviorStore(List<File> projectClasspath, @Nullable SonarComponents sonarComponents, SquidClassLoader classLoader) {
+    File storeDirectory = sonarComponents == null ? null : sonarComponents.behaviorStoreDirectory();
+    File summaries = sonarComponents == null ? null : sonarComponents.behaviorSummaries();
+    if (storeDirectory == null && summaries == null) {
+      return new BehaviorStore(classLoader);
+    }
+    return BehaviorStore.load(storeDirectory, projectClasspath, classLoader, summaries);
+  }
+
+  private static ClassFileCache createClassFileCache(List<File> projectClasspath, @Nullable SonarComponents sonarComponents, SquidClassLoader classLoader) {
+    File storeDirectory = sonarComponents == null ? null : sonarComponents.classFileCacheDirectory();
+    if (storeDirectory == null) {
+      return new ClassFileCache(classLoader);
+    }
+    return new ClassFileCache(classLoader, ClassFileStore.load(storeDirectory, projectClasspath, classLoader));
   }
 
   public void setJavaVersion(JavaVersion javaVersion) {
     this.javaVersion = javaVersion;
-    List<JavaFileScanner> scannersForJavaVersion = executableScanners(allScanners, javaVersion);
-    this.executableScanners = scannersForJavaVersion.stream().filter(isIssuableSubscriptionVisitor.negate()).collect(Collectors.toList());
-    this.scannerRunner = new ScannerRunner(scannersForJavaVersion);
+    this.scannersForJavaVersion = executableScanners(allScanners, javaVersion);
+    this.executableScanners = scannersForJavaVersion.stream().filter(isSharedTraversalVisitor.negate()).collect(Collectors.toList());
+    this.scannerRunner = new ScannerRunner(scannersForJavaVersion, profiler);
+    this.alwaysExecutedScanners = null;
+    this.ruleFreeScannerRunner = null;
+  }
+
+  /**
+   * Reuse the issues of the previous analysis for the files which did not change. Requires SonarComponents.
+   */
+  public void setAnalysisResultCache(AnalysisResultCache resultCache) {
+    this.resultCache = resultCache;
+  }
+
+  /**
+   * Measure the time and memory spent in each phase and each rule, reported at the end of the analysis.
+   */
+  public void setAnalysisProfiler(AnalysisProfiler profiler) {
+    this.profiler = profiler;
+    this.scannerRunner = new ScannerRunner(scannersForJavaVersion, profiler);
+    this.alwaysExecutedScanners = null;
+    this.ruleFreeScannerRunner = null;
+  }
+
+  /**
+   * Skip the rules of files, and interrupt the symbolic execution of methods, exceeding their time budget.
+   */
+  public void setAnalysisWatchdog(AnalysisWatchdog watchdog) {
+    this.watchdog = watchdog;
   }
 
   public void visitFile(@Nullable Tree parsedTree) {
@@ -117,13 +199,16 @@ public class VisitorsBridge {
     if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
       tree = (CompilationUnitTree) parsedTree;
       if (isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
+        AnalysisProfiler.Measure measure = startMeasure();
         try {
-          semanticModel = SemanticModel.createFor(tree, classLoader);
+          semanticModel = SemanticModel.createFor(tree, classFileCache);
         } catch (Exception e) {
           LOG.error("Unable to create symbol table for : " + currentFile.getAbsolutePath(), e);
           addAnalysisError(e, currentFile.getPath(), AnalysisError.Kind.SEMANTIC_ERROR);
           sonarComponents.reportAnalysisError(currentFile, e.getMessage());
           return;
+        } finally {
+          stopMeasure(AnalysisProfiler.Phase.SEMANTIC, measure);
         }
         createSonarSymbolTable(tree);
       } else {
@@ -131,19 +216,119 @@ public class VisitorsBridge {
       }
     }
     JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, semanticModel, sonarComponents, fileParsed);
-    // Symbolic execution checks
-    if (symbolicExecutionEnabled && isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
-      runScanner(javaFileScannerContext, new SymbolicExecutionVisitor(executableScanners, behaviorCache), AnalysisError.Kind.SE_ERROR);
-      behaviorCache.cleanup();
+    for (JavaFileScanner issueFilter : issueFilters) {
+      runScanner(javaFileScannerContext, issueFilter, AnalysisError.Kind.CHECK_ERROR);
+    }
+    if (resultCache != null && semanticModel != null && resultCache.canReuse(currentFile)) {
+      replayPreviousResults(javaFileScannerContext);
+    } else {
+      startRecording(tree);
+      // Symbolic execution checks
+      if (symbolicExecutionEnabled && isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
+        AnalysisProfiler.Measure measure = startMeasure();
+        SymbolicExecutionVisitor symbolicExecutionVisitor = new SymbolicExecutionVisitor(executableScanners, behaviorCache, watchdog);
+        symbolicExecutionVisitor.setExplorationStrategy(explorationStrategy);
+        runScanner(javaFileScannerContext, symbolicExecutionVisitor, AnalysisError.Kind.SE_ERROR);
+        behaviorCache.cleanup();
+        stopMeasure(AnalysisProfiler.Phase.SYMBOLIC_EXECUTION, measure);
+      }
+      runScanners(javaFileScannerContext, executableScanners, scannerRunner);
+      if (resultCache != null && watchdog != null && watchdog.fileInterrupted()) {
+        // results of the file are incomplete
+        resultCache.discard(currentFile);
+      }
+      stopRecording();
     }
-    executableScanners.forEach(scanner -> runScanner(javaFileScannerContext, scanner, AnalysisError.Kind.CHECK_ERROR));
-    scannerRunner.run(javaFileScannerContext);
     if (semanticModel != null) {
       classesNotFound.addAll(semanticModel.classesNotFound());
     }
   }
 
+  private void startRecording(CompilationUnitTree tree) {
+    if (resultCache != null && semanticModel != null) {
+      File file = currentFile;
+      AnalysisResultCache cache = resultCache;
+      cache.startFile(file, tree);
+      sonarComponents.setIssueRecorder((analyzerMessage, ruleKey) -> {
+        if (!(analyzerMessage.getCheck() instanceof EndOfAnalysisCheck) && file.equals(analyzerMessage.getFile())) {
+          cache.record(file, analyzerMessage, ruleKey.toString());
+        }
+      });
+    }
+  }
+
+  private void stopRecording() {
+    if (resultCache != null && semanticModel != null) {
+      sonarComponents.setIssueRecorder(null);
+    }
+  }
+
+  /**
+   * Only the scanners which are not rules, and the rules aggregating data over all the files, are executed.
+   */
+  private void replayPreviousResults(JavaFileScannerContext javaFileScannerContext) {
+    if (alwaysExecutedScanners == null) {
+      alwaysExecutedScanners = scannersForJavaVersion.stream()
+        .filter(scanner -> scanner instanceof EndOfAnalysisCheck || sonarComponents.getRuleKey(scanner) == null)
+        .collect(Collectors.toList());
+      alwaysExecutedScannerRunner = new ScannerRunner(alwaysExecutedScanners, profiler);
+    }
+    if (checksByRuleKey == null) {
+      checksByRuleKey = new HashMap<>();
+      for (JavaFileScanner scanner : allScanners) {
+        RuleKey ruleKey = sonarComponents.getRuleKey(scanner);
+        if (ruleKey != null) {
+          checksByRuleKey.put(ruleKey.toString(), scanner);
+        }
+      }
+    }
+    resultCache.replay(currentFile, checksByRuleKey, sonarComponents);
+    runScanners(javaFileScannerContext, alwaysExecutedScanners.stream().filter(isSharedTraversalVisitor.negate()).collect(Collectors.toList()),
+      alwaysExecutedScannerRunner);
+  }
+
+  private void runScanners(JavaFileScannerContext javaFileScannerContext, List<JavaFileScanner> fileScanners, ScannerRunner subscriptionRunner) {
+    AnalysisProfiler.Measure measure = startMeasure();
+    for (JavaFileScanner scanner : fileScanners) {
+      if (!(timeBudgetExceeded() && isRule(scanner))) {
+        runScanner(javaFileScannerContext, scanner, AnalysisError.Kind.CHECK_ERROR);
+      }
+    }
+    stopMeasure(AnalysisProfiler.Phase.FILE_VISITORS, measure);
+    measure = startMeasure();
+    if (timeBudgetExceeded()) {
+      if (ruleFreeScannerRunner == null) {
+        ruleFreeScannerRunner = new ScannerRunner(scannersForJavaVersion.stream().filter(scanner -> !isRule(scanner)).collect(Collectors.toList()), profiler);
+      }
+      ruleFreeScannerRunner.run(javaFileScannerContext);
+    } else {
+      subscriptionRunner.run(javaFileScannerContext);
+    }
+    stopMeasure(AnalysisProfiler.Phase.SUBSCRIPTION_VISITORS, measure);
+  }
+
+  private boolean timeBudgetExceeded() {
+    return watchdog != null && watchdog.fileBudgetExceeded("rules");
+  }
+
+  private static boolean isRule(JavaFileScanner scanner) {
+    return AnnotationUtils.getAnnotation(scanner.getClass(), Rule.class) != null;
+  }
+
+  @Nullable
+  private AnalysisProfiler.Measure startMeasure() {
+    return profiler == null ? null : profiler.start();
+  }
+
+  private void stopMeasure(AnalysisProfiler.Phase phase, @Nullable AnalysisProfiler.Measure measure) {
+    if (measure != null) {
+      profiler.recordFile(phase, currentFile, measure);
+    }
+  }
+
   private void runScanner(JavaFileScannerContext javaFileScannerContext, JavaFileScanner scanner, AnalysisError.Kind kind) {
+    // symbolic execution is accounted to its own phase, as its visitor is created for each file
+    AnalysisProfiler.Measure measure = kind == AnalysisError.Kind.CHECK_ERROR ? startMeasure() : null;
     try {
       scanner.scanFile(javaFileScannerContext);
     } catch (IllegalRuleParameterException e) {
@@ -162,10 +347,18 @@ public class VisitorsBridge {
       if (annotation != null) {
         key = annotation.key();
       }
+      if (resultCache != null) {
+        // results of the file are incomplete
+        resultCache.discard(currentFile);
+      }
       LOG.error(
         String.format("Unable to run check %s - %s on file %s, To help improve SonarJava, please report this problem to SonarSource : see https://www.sonarqube.org/community/",
           scanner.getClass(), key, currentFile.getPath()), e);
       addAnalysisError(e, currentFile.getPath(), kind);
+    } finally {
+      if (measure != null) {
+        profiler.recordVisitor(scanner, measure);
+      }
     }
   }
 
@@ -247,60 +440,161 @@ public class VisitorsBridge {
       .filter(s -> s instanceof EndOfAnalysisCheck)
       .map(EndOfAnalysisCheck.class::cast)
       .forEach(EndOfAnalysisCheck::endOfAnalysis);
+    if (resultCache != null) {
+      resultCache.save();
+    }
+    classFileCache.save();
+    behaviorCache.save();
     classLoader.close();
+    if (profiler != null) {
+      profiler.report();
+    }
+    if (watchdog != null) {
+      watchdog.report();
+    }
   }
 
   private static class ScannerRunner {
-    private EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
+    /**
+     * Marks, on the stack of trees to visit, that the tree below it has to be left.
+     */
+    private static final Object LEAVE = new Object();
+
+    /**
+     * Visitors subscribed to each kind of tree, indexed by the ordinal of the kind.
+     */
+    private final SubscriptionVisitor[][] visitorsByKind;
+    private final SubscriptionVisitor[] tokenVisitors;
+    private final SubscriptionVisitor[] triviaVisitors;
     private List<SubscriptionVisitor> subscriptionVisitors;
+    @Nullable
+    private Map<SubscriptionVisitor, AnalysisProfiler.Counter> counters;
 
-    ScannerRunner(List<JavaFileScanner> executableScanners) {
-      checks = new EnumMap<>(Tree.Kind.class);
+    ScannerRunner(List<JavaFileScanner> executableScanners, @Nullable AnalysisProfiler profiler) {
+      EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks = new EnumMap<>(Tree.Kind.class);
       subscriptionVisitors = executableScanners.stream()
-        .filter(isIssuableSubscriptionVisitor)
+        .filter(isSharedTraversalVisitor)
         .map(s -> (SubscriptionVisitor) s)
         .collect(Collectors.toList());
       subscriptionVisitors.forEach(s -> s.nodesToVisit().forEach(k -> checks.computeIfAbsent(k, key -> new ArrayList<>()).add(s))
       );
+      Tree.Kind[] kinds = Tree.Kind.values();
+      visitorsByKind = new SubscriptionVisitor[kinds.length][];
+      for (Tree.Kind kind : kinds) {
+        visitorsByKind[kind.ordinal()] = checks.getOrDefault(kind, Collections.emptyList()).toArray(new SubscriptionVisitor[0]);
+      }
+      tokenVisitors = visitorsByKind[Tree.Kind.TOKEN.ordinal()];
+      triviaVisitors = visitorsByKind[Tree.Kind.TRIVIA.ordinal()];
+      if (profiler != null) {
+        counters = new IdentityHashMap<>();
+        subscriptionVisitors.forEach(s -> counters.put(s, profiler.counter(s)));
+      }
     }
 
     public void run(JavaFileScannerContext javaFileScannerContext) {
       subscriptionVisitors.forEach(s -> s.setContext(javaFileScannerContext));
       visit(javaFileScannerContext.getTree());
-      subscriptionVisitors.forEach(s -> s.leaveFile(javaFileScannerContext));
+      subscriptionVisitors.forEach(profiled(s -> s.leaveFile(javaFileScannerContext)));
     }
 
-    private void visitChildren(Tree tree) {
-      JavaTree javaTree = (JavaTree) tree;
-      if (!javaTree.isLeaf()) {
-        for (Tree next : javaTree.getChildren()) {
-          if (next != null) {
-            visit(next);
+    /**
+     * Visitors are called for each node, so only their time is measured: see {@link AnalysisProfiler}.
+     */
+    private Consumer<SubscriptionVisitor> profiled(Consumer<SubscriptionVisitor> callback) {
+      if (counters == null) {
+        return callback;
+      }
+      return s -> {
+        long start = System.nanoTime();
+        callback.accept(s);
+        counters.get(s).add(System.nanoTime() - start, 0L);
+      };
+    }
+
+    /**
+     * Visits the trees with a stack rather than by recursion, so that long chains of expressions do not overflow the call stack.
+     */
+    private void visit(Tree root) {
+      Deque<Object> stack = new ArrayDeque<>();
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        Object next = stack.pop();
+        if (next == LEAVE) {
+          Tree tree = (Tree) stack.pop();
+          leaveNode(visitorsByKind[tree.kind().ordinal()], tree);
+        } else if (((Tree) next).kind() == Tree.Kind.TOKEN) {
+          visitToken((SyntaxToken) next);
+        } else {
+          Tree tree = (Tree) next;
+          SubscriptionVisitor[] visitors = visitorsByKind[tree.kind().ordinal()];
+          if (visitors.length > 0) {
+            visitNode(visitors, tree);
+            stack.push(tree);
+            stack.push(LEAVE);
           }
+          pushChildren(stack, (JavaTree) tree);
         }
       }
     }
 
-    private void visit(Tree tree) {
-      Consumer<SubscriptionVisitor> callback;
-      boolean isToken = tree.kind() == Tree.Kind.TOKEN;
-      if (isToken) {
-        callback = s -> {
-          SyntaxToken syntaxToken = (SyntaxToken) tree;
-          s.visitToken(syntaxToken);
-        };
-      } else {
-        callback = s -> s.visitNode(tree);
+    private static void pushChildren(Deque<Object> stack, JavaTree tree) {
+      if (tree.isLeaf()) {
+        return;
       }
-      List<SubscriptionVisitor> subscribed = checks.getOrDefault(tree.kind(), Collections.emptyList());
-      subscribed.forEach(callback);
-      if (isToken) {
-        checks.getOrDefault(Tree.Kind.TRIVIA, Collections.emptyList()).forEach(s -> ((SyntaxToken) tree).trivias().forEach(s::visitTrivia));
-      } else {
-        visitChildren(tree);
+      List<Tree> children = tree.getChildren();
+      for (int i = children.size() - 1; i >= 0; i--) {
+        Tree child = children.get(i);
+        if (child != null) {
+          stack.push(child);
+        }
+      }
+    }
+
+    private void visitNode(SubscriptionVisitor[] visitors, Tree tree) {
+      for (SubscriptionVisitor visitor : visitors) {
+        long start = startTime();
+        visitor.visitNode(tree);
+        record(visitor, start);
+      }
+    }
+
+    private void leaveNode(SubscriptionVisitor[] visitors, Tree tree) {
+      for (SubscriptionVisitor visitor : visitors) {
+        long start = startTime();
+        visitor.leaveNode(tree);
+        record(visitor, start);
+      }
+    }
+
+    private void visitToken(SyntaxToken token) {
+      for (SubscriptionVisitor visitor : tokenVisitors) {
+        long start = startTime();
+        visitor.visitToken(token);
+        record(visitor, start);
+      }
+      if (triviaVisitors.length == 0) {
+        return;
+      }
+      List<SyntaxTrivia> trivias = token.trivias();
+      if (trivias.isEmpty()) {
+        return;
+      }
+      for (SubscriptionVisitor visitor : triviaVisitors) {
+        long start = startTime();
+        for (SyntaxTrivia trivia : trivias) {
+          visitor.visitTrivia(trivia);
+        }
+        record(visitor, start);
       }
-      if(!isToken) {
-        subscribed.forEach(s -> s.leaveNode(tree));
+    }
+
+    private long startTime() {
+      return counters == null ? 0L : System.nanoTime();
+    }
+
+    private void record(SubscriptionVisitor visitor, long start) {
+      if (counters != null) {
+        counters.get(visitor).add(System.nanoTime() - start, 0L);
       }
     }
   }
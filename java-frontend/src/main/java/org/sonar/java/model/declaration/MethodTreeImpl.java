@@ -27,6 +27,7 @@ import org.sonar.java.ast.parser.FormalParametersListTreeImpl;
 import org.sonar.java.ast.parser.QualifiedIdentifierListTreeImpl;
 import org.sonar.java.ast.parser.TypeParameterListTreeImpl;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.LiveVariables;
 import org.sonar.java.model.JavaTree;
 import org.sonar.java.model.ModifiersUtils;
 import org.sonar.java.resolve.JavaSymbol;
@@ -71,6 +72,8 @@ public class MethodTreeImpl extends JavaTree implements MethodTree {
 
   @Nullable
   private CFG cfg;
+  private LiveVariables liveVariables;
+  private LiveVariables liveVariablesWithFields;
 
   //FIXME nullable if semantic analysis is not set. Should have a default value.
   @Nullable
@@ -242,6 +245,30 @@ public class MethodTreeImpl extends JavaTree implements MethodTree {
     return cfg;
   }
 
+  /**
+   * Live local variables and parameters of the {@link #cfg() CFG}, computed once for all the visitors of the file.
+   */
+  @Nullable
+  public LiveVariables liveVariables() {
+    CFG methodCfg = cfg();
+    if (methodCfg != null && liveVariables == null) {
+      liveVariables = LiveVariables.analyze(methodCfg);
+    }
+    return liveVariables;
+  }
+
+  /**
+   * Live local variables, parameters and fields of the {@link #cfg() CFG}, computed once for all the visitors of the file.
+   */
+  @Nullable
+  public LiveVariables liveVariablesWithFields() {
+    CFG methodCfg = cfg();
+    if (methodCfg != null && liveVariablesWithFields == null) {
+      liveVariablesWithFields = LiveVariables.analyzeWithFields(methodCfg);
+    }
+    return liveVariablesWithFields;
+  }
+
   @Override
   public Iterable<Tree> children() {
     ImmutableList.Builder<Tree> iteratorBuilder = ImmutableList.builder();
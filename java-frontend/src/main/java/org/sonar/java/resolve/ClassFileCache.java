@@ -0,0 +1,107 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.resolve;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+/**
+ * Project-wide cache of the class files read by {@link BytecodeCompleter}.
+ * Symbols are still created per compilation unit (they are entangled with the source symbols of the file), but the class file
+ * of a library type is located, read and decoded by ASM only once per analysis and then replayed for every file referencing it.
+ * Cached nodes are never modified after creation, so the cache can be shared between threads.
+ */
+public class ClassFileCache {
+
+  private static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG;
+
+  private final SquidClassLoader classLoader;
+  @Nullable
+  private final ClassFileStore store;
+  /**
+   * Indexed by flat name.
+   */
+  private final Map<String, Optional<ClassNode>> classNodes = new ConcurrentHashMap<>();
+  private final Map<String, Boolean> existingClasses = new ConcurrentHashMap<>();
+
+  public ClassFileCache(SquidClassLoader classLoader) {
+    this(classLoader, null);
+  }
+
+  public ClassFileCache(SquidClassLoader classLoader, @Nullable ClassFileStore store) {
+    this.classLoader = classLoader;
+    this.store = store;
+  }
+
+  /**
+   * @param flatName flat name of the class (e.g. org.acme.Foo$Bar)
+   * @return structure of the class (without method bodies nor debug information), or null if class is not found
+   */
+  @CheckForNull
+  public ClassNode classNode(String flatName) {
+    return classNodes.computeIfAbsent(flatName, this::readClassNode).orElse(null);
+  }
+
+  private Optional<ClassNode> readClassNode(String flatName) {
+    ClassReader classReader;
+    if (store != null) {
+      classReader = store.classReader(flatName);
+    } else {
+      byte[] bytes = classLoader.getBytesForClass(flatName);
+      classReader = bytes == null ? null : new ClassReader(bytes);
+    }
+    if (classReader == null) {
+      return Optional.empty();
+    }
+    ClassNode classNode = new ClassNode(BytecodeCompleter.ASM_API_VERSION);
+    classReader.accept(classNode, PARSING_OPTIONS);
+    return Optional.of(classNode);
+  }
+
+  /**
+   * Checks that a class file exists on the classpath, without reading it.
+   */
+  public boolean exists(String flatName) {
+    Optional<ClassNode> classNode = classNodes.get(flatName);
+    if (classNode != null) {
+      return classNode.isPresent();
+    }
+    return existingClasses.computeIfAbsent(flatName, name -> classLoader.getResource(Convert.bytecodeName(name) + ".class") != null);
+  }
+
+  /**
+   * Persists the class files read during the analysis, when backed by a {@link ClassFileStore}.
+   */
+  public void save() {
+    if (store != null) {
+      Map<String, ClassNode> readClassNodes = new HashMap<>();
+      classNodes.forEach((name, classNode) -> classNode.ifPresent(node -> readClassNodes.put(name, node)));
+      store.save(readClassNodes);
+    }
+  }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.resolve;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.CheckForNull;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.tree.ClassNode;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+/**
+ * On-disk store of the library class files used by a previous analysis, so that unchanged dependencies do not have to be
+ * inflated and decoded again. One store file is kept per classpath, and it is only reused when none of the archives of the
+ * classpath changed (same path, size and modification date) and the JDK is the same.
+ * Only classes coming from archives (jars, aars and JDK modules) are stored: classes from directories are the output of the
+ * build and change from one analysis to the other.
+ * Classes are stored stripped from method bodies and debug information, which is all {@link BytecodeCompleter} needs.
+ */
+public class ClassFileStore {
+
+  private static final Logger LOG = Loggers.get(ClassFileStore.class);
+
+  private static final int MAGIC = 0x534A4346;
+  private static final int FORMAT_VERSION = 1;
+
+  private final SquidClassLoader classLoader;
+  private final File file;
+  private final String fingerprint;
+  private final byte[] content;
+  /**
+   * Offset of each class file in {@link #content}, indexed by flat name.
+   */
+  private final Map<String, Integer> offsets;
+  private final Set<String> archivedClasses = ConcurrentHashMap.newKeySet();
+
+  private ClassFileStore(SquidClassLoader classLoader, File file, String fingerprint, byte[] content, Map<String, Integer> offsets) {
+    this.classLoader = classLoader;
+    this.file = file;
+    this.fingerprint = fingerprint;
+    this.content = content;
+    this.offsets = offsets;
+  }
+
+  public static ClassFileStore load(File directory, List<File> classpath, SquidClassLoader classLoader) {
+    File file = new File(directory, "classfiles-" + Hashing.murmur3_128().hashString(classpath.toString(), StandardCharsets.UTF_8) + ".bin");
+    String fingerprint = fingerprint(classpath);
+    if (file.isFile()) {
+      try {
+        byte[] content = Files.readAllBytes(file.toPath());
+        Map<String, Integer> offsets = readIndex(content, fingerprint);
+        if (offsets != null) {
+          LOG.debug("Reusing {} class files from {}", offsets.size(), file);
+          return new ClassFileStore(classLoader, file, fingerprint, content, offsets);
+        }
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("Unable to read class file store " + file, e);
+      }
+    }
+    return new ClassFileStore(classLoader, file, fingerprint, new byte[0], Collections.emptyMap());
+  }
+
+  private static String fingerprint(List<File> classpath) {
+    Hasher hasher = Hashing.murmur3_128().newHasher()
+      .putString(System.getProperty("java.home", ""), StandardCharsets.UTF_8)
+      .putString(System.getProperty("java.version", ""), StandardCharsets.UTF_8);
+    for (File file : classpath) {
+      hasher.putString(file.getAbsolutePath(), StandardCharsets.UTF_8);
+      if (file.isFile()) {
+        hasher.putLong(file.length()).putLong(file.lastModified());
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  @CheckForNull
+  private static Map<String, Integer> readIndex(byte[] content, String expectedFingerprint) {
+    ByteBuffer buffer = ByteBuffer.wrap(content);
+    if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION || !expectedFingerprint.equals(readString(buffer))) {
+      return null;
+    }
+    int count = buffer.getInt();
+    Map<String, Integer> offsets = new HashMap<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      String name = readString(buffer);
+      int length = buffer.getInt();
+      offsets.put(name, buffer.position());
+      buffer.position(buffer.position() + length);
+    }
+    return offsets;
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return reader on the class file, or null if class is not found
+   */
+  @CheckForNull
+  public ClassReader classReader(String flatName) {
+    URL url = classLoader.getResource(Convert.bytecodeName(flatName) + ".class");
+    if (url == null) {
+      return null;
+    }
+    if (isArchived(url)) {
+      archivedClasses.add(flatName);
+      Integer offset = offsets.get(flatName);
+      if (offset != null) {
+        return new ClassReader(content, offset, ByteBuffer.wrap(content, offset - 4, 4).getInt());
+      }
+    }
+    byte[] bytes = classLoader.getBytesForClass(flatName);
+    return bytes == null ? null : new ClassReader(bytes);
+  }
+
+  @VisibleForTesting
+  Set<String> storedClasses() {
+    return offsets.keySet();
+  }
+
+  private static boolean isArchived(URL url) {
+    String protocol = url.getProtocol();
+    return "jar".equals(protocol) || "jrt".equals(protocol);
+  }
+
+  /**
+   * Writes the store back to disk if classes which were not stored yet have been read from archives.
+   */
+  public void save(Map<String, ClassNode> classNodes) {
+    if (offsets.keySet().containsAll(archivedClasses)) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.getParentFile().toPath());
+      Path tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        write(out, classNodes);
+      }
+      Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      LOG.debug("Unable to write class file store " + file, e);
+    }
+  }
+
+  private void write(DataOutputStream out, Map<String, ClassNode> classNodes) throws IOException {
+    Map<String, byte[]> classFiles = new HashMap<>();
+    for (String name : archivedClasses) {
+      Integer offset = offsets.get(name);
+      ClassNode classNode = classNodes.get(name);
+      if (offset != null) {
+        int length = ByteBuffer.wrap(content, offset - 4, 4).getInt();
+        byte[] bytes = new byte[length];
+        System.arraycopy(content, offset, bytes, 0, length);
+        classFiles.put(name, bytes);
+      } else if (classNode != null) {
+        ClassWriter classWriter = new ClassWriter(0);
+        classNode.accept(classWriter);
+        classFiles.put(name, classWriter.toByteArray());
+      }
+    }
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    writeBytes(out, fingerprint.getBytes(StandardCharsets.UTF_8));
+    out.writeInt(classFiles.size());
+    for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+      writeBytes(out, classFile.getKey().getBytes(StandardCharsets.UTF_8));
+      writeBytes(out, classFile.getValue());
+    }
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+}
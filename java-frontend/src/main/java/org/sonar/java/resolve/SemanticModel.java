@@ -55,8 +55,15 @@ public class SemanticModel {
   }
 
   public static SemanticModel createFor(CompilationUnitTree tree, SquidClassLoader classLoader) {
+    return createFor(tree, new ClassFileCache(classLoader));
+  }
+
+  /**
+   * @param classFileCache cache of class files shared by all the compilation units of the analysis
+   */
+  public static SemanticModel createFor(CompilationUnitTree tree, ClassFileCache classFileCache) {
     ParametrizedTypeCache parametrizedTypeCache = new ParametrizedTypeCache();
-    BytecodeCompleter bytecodeCompleter = new BytecodeCompleter(classLoader, parametrizedTypeCache);
+    BytecodeCompleter bytecodeCompleter = new BytecodeCompleter(classFileCache, parametrizedTypeCache);
     Symbols symbols = new Symbols(bytecodeCompleter);
     SemanticModel semanticModel = new SemanticModel(bytecodeCompleter);
     try {
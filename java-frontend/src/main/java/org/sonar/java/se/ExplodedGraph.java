@@ -20,16 +20,18 @@
 package org.sonar.java.se;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 
 import org.sonar.java.se.xproc.MethodYield;
 import org.sonar.plugins.java.api.tree.Tree;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -39,7 +41,8 @@ import java.util.Set;
 public class ExplodedGraph {
 
   private final Map<Node, Node> nodes = Maps.newHashMap();
-  private final Multimap<ProgramPoint, Node> nodesByProgramPoint = LinkedListMultimap.create();
+  private final Multimap<ProgramPoint, Node> nodesByProgramPoint = ArrayListMultimap.create();
+  private long flowDeadline = Long.MAX_VALUE;
 
   /**
    * Returns node associated with given (programPoint,programState) pair. If no node for this pair exists, it is created.
@@ -61,13 +64,31 @@ public class ExplodedGraph {
     return nodes;
   }
 
+  /**
+   * @param deadline value of {@link System#nanoTime()} after which computation of flows on this graph stops: the flows of
+   * issues reported after the deadline are truncated to the locations found before it
+   */
+  void setFlowDeadline(long deadline) {
+    this.flowDeadline = deadline;
+  }
+
+  long flowDeadline() {
+    return flowDeadline;
+  }
+
   public static final class Node {
 
     public final ProgramPoint programPoint;
     @Nullable
     public final ProgramState programState;
 
-    private final Map<Node, Edge> edges = new HashMap<>();
+    /**
+     * Most nodes have a single parent: its edge is kept in {@link #firstEdge} and the map is only created when a second parent is added.
+     */
+    @Nullable
+    private Edge firstEdge;
+    @Nullable
+    private Map<Node, Edge> edges;
 
     private boolean isNew;
     boolean exitPath = false;
@@ -86,13 +107,33 @@ public class ExplodedGraph {
       if (parent == null) {
         return;
       }
-      Edge edge = edges.computeIfAbsent(parent, p -> new Edge(this, p));
+      Edge edge = edgeFrom(parent);
+      if (edge == null) {
+        edge = new Edge(this, parent);
+        if (firstEdge == null) {
+          firstEdge = edge;
+        } else {
+          if (edges == null) {
+            edges = new HashMap<>();
+            edges.put(firstEdge.parent, firstEdge);
+          }
+          edges.put(parent, edge);
+        }
+      }
       if (methodYield != null) {
         Preconditions.checkState(parent.programPoint.syntaxTree().is(Tree.Kind.METHOD_INVOCATION), "Yield on edge where parent is not MIT");
-        edge.yields.add(methodYield);
+        edge.addYield(methodYield);
       }
     }
 
+    @CheckForNull
+    private Edge edgeFrom(Node parent) {
+      if (edges != null) {
+        return edges.get(parent);
+      }
+      return firstEdge != null && firstEdge.parent.equals(parent) ? firstEdge : null;
+    }
+
     public Collection<Node> siblings() {
       Collection<Node> collection = explodedGraph.nodesByProgramPoint.get(programPoint);
       collection.remove(this);
@@ -101,14 +142,20 @@ public class ExplodedGraph {
 
     @Nullable
     public Node parent() {
-      return parents().stream().findFirst().orElse(null);
+      if (edges != null) {
+        return edges.keySet().iterator().next();
+      }
+      return firstEdge == null ? null : firstEdge.parent;
     }
 
     /**
      * @return the ordered (by insertion) sets of parents
      */
     public Set<Node> parents() {
-      return edges.keySet();
+      if (edges != null) {
+        return edges.keySet();
+      }
+      return firstEdge == null ? Collections.emptySet() : Collections.singleton(firstEdge.parent);
     }
 
     @Override
@@ -132,12 +179,19 @@ public class ExplodedGraph {
     }
 
     public Collection<Edge> edges() {
-      return edges.values();
+      if (edges != null) {
+        return edges.values();
+      }
+      return firstEdge == null ? Collections.emptyList() : Collections.singletonList(firstEdge);
     }
 
     public boolean isNew() {
       return isNew;
     }
+
+    ExplodedGraph explodedGraph() {
+      return explodedGraph;
+    }
   }
 
   public static final class Edge {
@@ -147,7 +201,7 @@ public class ExplodedGraph {
 
     private Set<LearnedConstraint> lc;
     private Set<LearnedAssociation> la;
-    private final Set<MethodYield> yields = new LinkedHashSet<>();
+    private Set<MethodYield> yields = Collections.emptySet();
 
     private Edge(Node child, Node parent) {
       Preconditions.checkState(!child.equals(parent));
@@ -182,6 +236,13 @@ public class ExplodedGraph {
       return yields;
     }
 
+    private void addYield(MethodYield methodYield) {
+      if (yields.isEmpty()) {
+        yields = new LinkedHashSet<>();
+      }
+      yields.add(methodYield);
+    }
+
     @Override
     public boolean equals(Object o) {
       if (this == o) {
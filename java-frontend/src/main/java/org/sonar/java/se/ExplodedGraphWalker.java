@@ -28,11 +28,9 @@ import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +48,7 @@ import org.sonar.java.matcher.MethodMatcher;
 import org.sonar.java.matcher.MethodMatcherCollection;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.declaration.MethodTreeImpl;
 import org.sonar.java.resolve.JavaType;
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.java.resolve.Types;
@@ -109,6 +108,10 @@ public class ExplodedGraphWalker {
    * Arbitrary number to limit symbolic execution.
    */
   private static final int MAX_STEPS = 16_000;
+  /**
+   * Number of steps between two checks of the deadline, reading the clock at each step would be too costly.
+   */
+  static final int DEADLINE_CHECK_STEPS = 64;
   public static final int MAX_NESTED_BOOLEAN_STATES = 10_000;
   private static final Logger LOG = Loggers.get(ExplodedGraphWalker.class);
   private static final Set<String> THIS_SUPER = ImmutableSet.of("this", "super");
@@ -133,7 +136,7 @@ public class ExplodedGraphWalker {
   private ExplodedGraph explodedGraph;
 
   @VisibleForTesting
-  Deque<ExplodedGraph.Node> workList;
+  WorkList workList;
   ExplodedGraph.Node node;
   ProgramPoint programPosition;
   ProgramState programState;
@@ -146,6 +149,19 @@ public class ExplodedGraphWalker {
   private final BehaviorCache behaviorCache;
   @VisibleForTesting
   int steps;
+  /**
+   * Number of times a state already in the exploded graph was reached again at the same program point, and not enqueued again.
+   */
+  @VisibleForTesting
+  int revisitedStates;
+  /**
+   * Number of states entering a block which were merged with a state already in the exploded graph once the symbols dead
+   * in the block were dropped: each of them saves the exploration of the rest of its path.
+   */
+  @VisibleForTesting
+  int mergedStates;
+  private long deadline = Long.MAX_VALUE;
+  private ExplorationStrategy explorationStrategy = ExplorationStrategy.DEPTH_FIRST;
 
   ConstraintManager constraintManager;
   private boolean cleanup = true;
@@ -170,6 +186,12 @@ public class ExplodedGraphWalker {
     }
 
   }
+  public static class TimeBudgetExceededException extends MaximumStepsReachedException {
+
+    public TimeBudgetExceededException(String s) {
+      super(s);
+    }
+  }
   public static class TooManyNestedBooleanStatesException extends RuntimeException {
 
   }
@@ -197,6 +219,17 @@ public class ExplodedGraphWalker {
     this.semanticModel = semanticModel;
   }
 
+  /**
+   * @param deadline value of {@link System#nanoTime()} after which the exploration is interrupted
+   */
+  public void setDeadline(long deadline) {
+    this.deadline = deadline;
+  }
+
+  public void setExplorationStrategy(ExplorationStrategy explorationStrategy) {
+    this.explorationStrategy = explorationStrategy;
+  }
+
   public MethodBehavior visitMethod(MethodTree tree) {
     return visitMethod(tree, null);
   }
@@ -212,14 +245,16 @@ public class ExplodedGraphWalker {
   }
 
   private void execute(MethodTree tree) {
-    CFG cfg = CFG.build(tree);
+    MethodTreeImpl methodTreeImpl = (MethodTreeImpl) tree;
+    CFG cfg = methodTreeImpl.cfg();
     exitBlock = cfg.exitBlock();
     checkerDispatcher.init(tree, cfg);
-    liveVariables = LiveVariables.analyze(cfg);
+    liveVariables = methodTreeImpl.liveVariables();
     explodedGraph = new ExplodedGraph();
+    explodedGraph.setFlowDeadline(deadline);
     methodTree = tree;
     constraintManager = new ConstraintManager();
-    workList = new LinkedList<>();
+    workList = explorationStrategy.newWorkList();
     // Linked hashSet is required to guarantee order of yields to be generated
     endOfExecutionPath = new LinkedHashSet<>();
     if(DEBUG_MODE_ACTIVATED) {
@@ -227,6 +262,8 @@ public class ExplodedGraphWalker {
     }
     programState = ProgramState.EMPTY_STATE;
     steps = 0;
+    revisitedStates = 0;
+    mergedStates = 0;
     for (ProgramState startingState : startingStates(tree, programState)) {
       enqueue(new ProgramPoint(cfg.entryBlock()), startingState);
     }
@@ -235,8 +272,10 @@ public class ExplodedGraphWalker {
       if (steps > maxSteps()) {
         throwMaxSteps(tree);
       }
-      // LIFO:
-      setNode(workList.removeFirst());
+      if (deadline != Long.MAX_VALUE && steps % DEADLINE_CHECK_STEPS == 0 && System.nanoTime() - deadline > 0) {
+        throwTimeBudgetExceeded(tree);
+      }
+      setNode(workList.pop());
       CFG.Block block = (CFG.Block) programPosition.block;
       if (block.successors().isEmpty()) {
         endOfExecutionPath.add(node);
@@ -268,6 +307,8 @@ public class ExplodedGraphWalker {
 
     handleEndOfExecutionPath(false);
     checkerDispatcher.executeCheckEndOfExecution();
+    LOG.trace("Explored method {}#{} in {} steps with {} exploration, {} states reached again, {} states merged once dead symbols dropped",
+      tree.simpleName().name(), tree.simpleName().firstToken().line(), steps, explorationStrategy, revisitedStates, mergedStates);
     // Cleanup:
     workList = null;
     node = null;
@@ -299,6 +340,14 @@ public class ExplodedGraphWalker {
     throw cause;
   }
 
+  private void throwTimeBudgetExceeded(MethodTree tree) {
+    String message = String.format("reached time budget after %d steps for method %s#%d in class %s",
+      steps, tree.simpleName().name(), tree.simpleName().firstToken().line(), tree.symbol().owner().name());
+    MaximumStepsReachedException cause = new TimeBudgetExceededException(message);
+    interrupted(cause);
+    throw cause;
+  }
+
   private void interrupted(Exception cause) {
     handleEndOfExecutionPath(true);
     checkerDispatcher.interruptedExecution(cause);
@@ -375,6 +424,21 @@ public class ExplodedGraphWalker {
     }
   }
 
+  /**
+   * States leaving a block are cleaned up with the variables live out of the block, some of which can be dead in the
+   * successor. States entering a block are cleaned up again with the variables live in the block: states reaching a join
+   * point which only differ by values of dead symbols are merged. The exit block is left untouched, as yields are
+   * computed from its states.
+   */
+  private ProgramState cleanupDeadSymbolsAtBlockEntry(ProgramPoint programPoint, ProgramState programState) {
+    CFG.Block block = (CFG.Block) programPoint.block;
+    if (!cleanup || programPoint.i != 0 || block.successors().isEmpty()) {
+      return programState;
+    }
+    Collection<SymbolicValue> protectedSVs = methodBehavior == null ? Collections.emptyList() : methodBehavior.parameters();
+    return programState.cleanupDeadSymbols(liveVariables.getIn(block), protectedSVs).cleanupConstraints(protectedSVs);
+  }
+
   private void handleBlockExit(ProgramPoint programPosition) {
     CFG.Block block = (CFG.Block) programPosition.block;
     Tree terminator = block.terminator();
@@ -1098,16 +1162,22 @@ public class ExplodedGraphWalker {
       }
     }
     checkExplodedGraphTooBig(programState);
-    ProgramState ps = programState.visitedPoint(programPoint, nbOfExecution + 1);
+    ProgramState cleanedUpState = cleanupDeadSymbolsAtBlockEntry(programPoint, programState);
+    ProgramState ps = cleanedUpState.visitedPoint(programPoint, nbOfExecution + 1);
     ExplodedGraph.Node cachedNode = explodedGraph.node(programPoint, ps);
     if (!cachedNode.isNew() && exitPath == cachedNode.exitPath) {
       // has been enqueued earlier
       cachedNode.addParent(node, methodYield);
+      if (cleanedUpState == programState) {
+        revisitedStates++;
+      } else {
+        mergedStates++;
+      }
       return;
     }
     cachedNode.exitPath = exitPath;
     cachedNode.addParent(node, methodYield);
-    workList.addFirst(cachedNode);
+    workList.push(cachedNode);
   }
 
   private static boolean isRestartingForEachLoop(ProgramPoint programPoint) {
@@ -0,0 +1,82 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.Locale;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Order in which the {@link ExplodedGraphWalker} explores the nodes it enqueued.
+ *
+ * Whatever the order, a node already in the exploded graph is never explored twice. The order changes which paths are explored
+ * first, hence which ones are left unexplored when symbolic execution of a method is interrupted, and how many states reach a
+ * join point before it is explored.
+ */
+public enum ExplorationStrategy {
+  /**
+   * Last enqueued node first: follows a path to its end before exploring the others. The default.
+   */
+  DEPTH_FIRST {
+    @Override
+    WorkList newWorkList() {
+      return WorkList.lifo();
+    }
+  },
+  /**
+   * First enqueued node first: explores all the paths one step at a time.
+   */
+  BREADTH_FIRST {
+    @Override
+    WorkList newWorkList() {
+      return WorkList.fifo();
+    }
+  },
+  /**
+   * Nodes of the block closest to the entry of the CFG first, then depth first: all the paths reaching a join point are explored
+   * before it, so that the states reaching it with the same constraints end up in the same node.
+   */
+  TOPOLOGICAL {
+    @Override
+    WorkList newWorkList() {
+      return WorkList.cfgOrdered();
+    }
+  };
+
+  abstract WorkList newWorkList();
+
+  /**
+   * @param value name of a strategy, case insensitive
+   * @return the strategy with this name, {@link #DEPTH_FIRST} when there is none or when the name is unknown
+   */
+  public static ExplorationStrategy fromName(@Nullable String value) {
+    if (value == null) {
+      return DEPTH_FIRST;
+    }
+    String name = value.trim().toUpperCase(Locale.ENGLISH);
+    for (ExplorationStrategy strategy : values()) {
+      if (strategy.name().equals(name)) {
+        return strategy;
+      }
+    }
+    Loggers.get(ExplorationStrategy.class).warn("Unknown exploration strategy '{}', using {}", value, DEPTH_FIRST);
+    return DEPTH_FIRST;
+  }
+}
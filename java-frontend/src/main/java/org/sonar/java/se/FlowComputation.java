@@ -161,6 +161,7 @@ public class FlowComputation {
     SameConstraints sameConstraints = new SameConstraints(node, trackedSymbols, domains);
     node.edges().stream().flatMap(e -> startPath(e, trackedSymbols, sameConstraints)).forEach(workList::push);
     int flowSteps = 0;
+    long deadline = node.explodedGraph().flowDeadline();
     Set<ExecutionPath> visited = new HashSet<>(workList);
     while (!workList.isEmpty()) {
       ExecutionPath path = workList.pop();
@@ -177,7 +178,7 @@ public class FlowComputation {
           });
       }
       flowSteps++;
-      if(flowSteps == MAX_FLOW_STEPS) {
+      if (flowSteps == MAX_FLOW_STEPS || deadlineReached(deadline, flowSteps)) {
         LOG.debug("Flow was not able to complete");
         break;
       }
@@ -185,6 +186,13 @@ public class FlowComputation {
     return flows;
   }
 
+  /**
+   * Once the deadline of the method is reached, the flows found so far are returned: they can miss secondary locations.
+   */
+  private static boolean deadlineReached(long deadline, int flowSteps) {
+    return deadline != Long.MAX_VALUE && flowSteps % ExplodedGraphWalker.DEADLINE_CHECK_STEPS == 0 && System.nanoTime() - deadline > 0;
+  }
+
   Stream<ExecutionPath> startPath(ExplodedGraph.Edge edge, PSet<Symbol> trackedSymbols, SameConstraints sameConstraints) {
     return new ExecutionPath(null, PCollections.emptySet(), trackedSymbols, sameConstraints, Flow.empty(), false).addEdge(edge);
   }
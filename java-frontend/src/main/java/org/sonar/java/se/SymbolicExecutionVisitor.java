@@ -22,8 +22,10 @@ package org.sonar.java.se;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.AnalysisWatchdog;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.java.resolve.Flags;
 import org.sonar.java.resolve.JavaSymbol;
@@ -42,16 +44,37 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
   @VisibleForTesting
   public BehaviorCache behaviorCache;
   private final ExplodedGraphWalker.ExplodedGraphWalkerFactory egwFactory;
+  @Nullable
+  private final AnalysisWatchdog watchdog;
+  private ExplorationStrategy explorationStrategy = ExplorationStrategy.DEPTH_FIRST;
+  /**
+   * Deadline of the method being explored, which also bounds the methods explored to compute behaviors it requires.
+   */
+  private long deadline = Long.MAX_VALUE;
 
   public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache) {
+    this(executableScanners, behaviorCache, null);
+  }
+
+  public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache, @Nullable AnalysisWatchdog watchdog) {
     egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(executableScanners);
     this.behaviorCache = behaviorCache;
+    this.watchdog = watchdog;
+  }
+
+  public void setExplorationStrategy(ExplorationStrategy explorationStrategy) {
+    this.explorationStrategy = explorationStrategy;
   }
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
     behaviorCache.setFileContext(this, (SemanticModel) context.getSemanticModel());
-    super.scanFile(context);
+    egwFactory.seChecks.forEach(check -> check.setFileContext(context));
+    try {
+      super.scanFile(context);
+    } finally {
+      egwFactory.seChecks.forEach(check -> check.setFileContext(null));
+    }
   }
 
   @Override
@@ -65,7 +88,16 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
   }
 
   public void execute(MethodTree methodTree) {
+    if (watchdog != null && watchdog.fileBudgetExceeded("symbolic execution and rules")) {
+      return;
+    }
     ExplodedGraphWalker walker = getWalker();
+    walker.setExplorationStrategy(explorationStrategy);
+    long callerDeadline = deadline;
+    if (watchdog != null) {
+      deadline = watchdog.methodDeadline(callerDeadline);
+      walker.setDeadline(deadline);
+    }
     try {
       Symbol.MethodSymbol methodSymbol = methodTree.symbol();
       if (methodCanNotBeOverriden(methodSymbol)) {
@@ -79,10 +111,15 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
       }
     } catch (ExplodedGraphWalker.MaximumStepsReachedException
       | ExplodedGraphWalker.ExplodedGraphTooBigException exception) {
+      if (watchdog != null && exception instanceof ExplodedGraphWalker.TimeBudgetExceededException) {
+        watchdog.methodBudgetExceeded(methodTree.simpleName().name() + "#" + methodTree.simpleName().firstToken().line());
+      }
       LOG.debug("Could not complete symbolic execution: ", exception);
       if (walker.methodBehavior != null) {
         walker.methodBehavior.visited();
       }
+    } finally {
+      deadline = callerDeadline;
     }
   }
 
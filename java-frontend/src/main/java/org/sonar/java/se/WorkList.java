@@ -0,0 +1,141 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.PriorityQueue;
+import javax.annotation.CheckForNull;
+
+/**
+ * Nodes of the exploded graph waiting to be explored, see {@link ExplorationStrategy}.
+ */
+abstract class WorkList {
+
+  abstract void push(ExplodedGraph.Node node);
+
+  /**
+   * Removes the next node to explore.
+   */
+  abstract ExplodedGraph.Node pop();
+
+  /**
+   * @return the next node to explore, without removing it, or null when there is none
+   */
+  @CheckForNull
+  abstract ExplodedGraph.Node peek();
+
+  abstract int size();
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  static WorkList lifo() {
+    return new DequeWorkList(true);
+  }
+
+  static WorkList fifo() {
+    return new DequeWorkList(false);
+  }
+
+  static WorkList cfgOrdered() {
+    return new CfgOrderedWorkList();
+  }
+
+  private static class DequeWorkList extends WorkList {
+    private final Deque<ExplodedGraph.Node> nodes = new ArrayDeque<>();
+    private final boolean lifo;
+
+    DequeWorkList(boolean lifo) {
+      this.lifo = lifo;
+    }
+
+    @Override
+    void push(ExplodedGraph.Node node) {
+      if (lifo) {
+        nodes.addFirst(node);
+      } else {
+        nodes.addLast(node);
+      }
+    }
+
+    @Override
+    ExplodedGraph.Node pop() {
+      return nodes.removeFirst();
+    }
+
+    @Override
+    ExplodedGraph.Node peek() {
+      return nodes.peekFirst();
+    }
+
+    @Override
+    int size() {
+      return nodes.size();
+    }
+  }
+
+  /**
+   * Blocks of a CFG are numbered from its exit, so the highest id is the closest to the entry. Loops aside, a block is thus
+   * explored after all its predecessors. Within a block, nodes are explored in the order of their program point, and the last
+   * enqueued first between nodes of the same program point.
+   */
+  private static class CfgOrderedWorkList extends WorkList {
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(e -> -e.node.programPoint.block.id())
+      .thenComparingInt(e -> e.node.programPoint.i)
+      .thenComparingLong(e -> -e.sequence);
+
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>(ORDER);
+    private long sequence = 0;
+
+    @Override
+    void push(ExplodedGraph.Node node) {
+      entries.add(new Entry(node, sequence++));
+    }
+
+    @Override
+    ExplodedGraph.Node pop() {
+      return entries.remove().node;
+    }
+
+    @Override
+    ExplodedGraph.Node peek() {
+      Entry entry = entries.peek();
+      return entry == null ? null : entry.node;
+    }
+
+    @Override
+    int size() {
+      return entries.size();
+    }
+
+    private static class Entry {
+      private final ExplodedGraph.Node node;
+      private final long sequence;
+
+      Entry(ExplodedGraph.Node node, long sequence) {
+        this.node = node;
+        this.sequence = sequence;
+      }
+    }
+  }
+}
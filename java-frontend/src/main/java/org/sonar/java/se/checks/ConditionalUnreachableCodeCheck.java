@@ -45,7 +45,7 @@ public class ConditionalUnreachableCodeCheck extends SECheck {
   }
 
   private void reportBooleanExpression(CheckerContext context, AlwaysTrueOrFalseExpressionCollector atof, Tree condition, boolean isTrue) {
-    if (AlwaysTrueOrFalseExpressionCollector.hasUnreachableCode(condition, isTrue)) {
+    if (AlwaysTrueOrFalseExpressionCollector.hasUnreachableCode(condition, isTrue) && !isIssueSuppressed(condition)) {
       Set<Flow> flows = atof.flowForExpression(condition).stream()
         .map(flow -> AlwaysTrueOrFalseExpressionCollector.addIssueLocation(flow, condition, isTrue))
         .collect(Collectors.toSet());
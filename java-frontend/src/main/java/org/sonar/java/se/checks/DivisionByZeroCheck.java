@@ -262,6 +262,9 @@ public class DivisionByZeroCheck extends SECheck {
 
     private void reportIssue(Tree tree, SymbolicValue denominator, Symbol denominatorSymbol) {
       ExpressionTree expression = getDenominator(tree);
+      if (isIssueSuppressed(expression)) {
+        return;
+      }
       String operation = tree.is(Tree.Kind.REMAINDER, Tree.Kind.REMAINDER_ASSIGNMENT) ? "modulation" : "division";
       String expressionName = expression.is(Tree.Kind.IDENTIFIER) ? ("\"" + ((IdentifierTree) expression).name() + "\"") : "this expression";
       List<Class<? extends Constraint>> domains = Collections.singletonList(ZeroConstraint.class);
@@ -71,6 +71,9 @@ public class ExceptionalYieldChecker {
     if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
       reportTree = ((MemberSelectExpressionTree) methodSelect).identifier();
     }
+    if (check.isIssueSuppressed(reportTree)) {
+      return;
+    }
 
     JavaFileScannerContext.Location methodInvocationMessage;
     int parameterCausingExceptionIndex = yield.parameterCausingExceptionIndex();
@@ -153,6 +153,9 @@ public class NullDereferenceCheck extends SECheck {
   }
 
   private void reportIssue(SymbolicValue currentVal, Tree syntaxNode, ExplodedGraph.Node node) {
+    if (isIssueSuppressed(syntaxNode)) {
+      return;
+    }
     String message = "A \"NullPointerException\" could be thrown; ";
     if (syntaxNode.is(Tree.Kind.MEMBER_SELECT)
         && ((MemberSelectExpressionTree) syntaxNode).expression().is(Tree.Kind.METHOD_INVOCATION)) {
@@ -27,6 +27,7 @@ import org.sonar.java.se.constraint.ConstraintManager;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.util.Collections;
@@ -34,10 +35,31 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 public abstract class SECheck implements JavaFileScanner {
 
   protected Set<SEIssue> issues = new HashSet<>();
+  @Nullable
+  private JavaFileScannerContext fileContext;
+
+  /**
+   * Context of the file whose methods are explored, set by the symbolic execution for the duration of the exploration.
+   */
+  public void setFileContext(@Nullable JavaFileScannerContext fileContext) {
+    this.fileContext = fileContext;
+  }
+
+  /**
+   * Whether an issue reported on the tree would be filtered out. The flows of such an issue do not need to be computed.
+   */
+  protected boolean isIssueSuppressed(Tree tree) {
+    if (fileContext == null) {
+      return false;
+    }
+    SyntaxToken firstToken = tree.firstToken();
+    return firstToken != null && fileContext.isIssueSuppressed(this, firstToken.line());
+  }
 
   public void init(MethodTree methodTree, CFG cfg) {
 
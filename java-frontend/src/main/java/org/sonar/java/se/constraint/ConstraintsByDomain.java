@@ -19,6 +19,8 @@
  */
 package org.sonar.java.se.constraint;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,16 +28,29 @@ import javax.annotation.Nullable;
 import org.sonar.java.collections.PCollections;
 import org.sonar.java.collections.PMap;
 
+/**
+ * Constraints of a symbolic value, at most one per domain.
+ *
+ * Instances are hash-consed: equal instances are the same object. A few combinations of constraints are shared by all the symbolic
+ * values of all the program states, so this saves memory, and comparing the constraints of two program states mostly amounts to
+ * comparing references.
+ */
 public class ConstraintsByDomain {
 
+  private static final Interner<ConstraintsByDomain> INTERNER = Interners.newWeakInterner();
+
   private final PMap<Class<? extends Constraint>, Constraint> constraintPMap;
 
-  private static final ConstraintsByDomain EMPTY = new ConstraintsByDomain(PCollections.emptyMap());
+  private static final ConstraintsByDomain EMPTY = of(PCollections.emptyMap());
 
   private ConstraintsByDomain(PMap<Class<? extends Constraint>, Constraint> constraintPMap) {
     this.constraintPMap = constraintPMap;
   }
 
+  private static ConstraintsByDomain of(PMap<Class<? extends Constraint>, Constraint> constraintPMap) {
+    return INTERNER.intern(new ConstraintsByDomain(constraintPMap));
+  }
+
   public static ConstraintsByDomain empty() {
     return EMPTY;
   }
@@ -45,7 +60,7 @@ public class ConstraintsByDomain {
     if (remove == constraintPMap) {
       return this;
     }
-    return remove.isEmpty() ? EMPTY : new ConstraintsByDomain(remove);
+    return remove.isEmpty() ? EMPTY : of(remove);
   }
 
   @Nullable
@@ -67,7 +82,7 @@ public class ConstraintsByDomain {
 
   public ConstraintsByDomain put(Constraint constraint) {
     PMap<Class<? extends Constraint>, Constraint> newConstraints = constraintPMap.put(constraint.getClass(), constraint);
-    return newConstraints == constraintPMap ? this : new ConstraintsByDomain(newConstraints);
+    return newConstraints == constraintPMap ? this : of(newConstraints);
   }
 
   public Stream<Constraint> stream() {
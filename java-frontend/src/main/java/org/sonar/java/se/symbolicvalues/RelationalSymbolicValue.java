@@ -37,8 +37,10 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -248,30 +250,65 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
     return RelationState.UNDETERMINED;
   }
 
+  /**
+   * Relations deduced from this relation and the known relations. Only consequences of this relation are computed: a relation
+   * is only combined with the known relations sharing one of its operands, as the others can not be combined with it. The
+   * number of combinations is bounded, rather than the number of known relations, so that methods with many unrelated
+   * relations are explored completely.
+   */
   @VisibleForTesting
   Set<RelationalSymbolicValue> transitiveRelations(Set<RelationalSymbolicValue> knownRelations) {
+    Map<SymbolicValue, List<RelationalSymbolicValue>> knownRelationsByOperand = relationsByOperand(knownRelations);
     Set<RelationalSymbolicValue> newRelations = new HashSet<>();
     Deque<RelationalSymbolicValue> workList = new ArrayDeque<>();
     int iterations = 0;
+    int combinations = 0;
     workList.add(this);
     while (!workList.isEmpty()) {
-      int relationSize = newRelations.size() * knownRelations.size();
-      if (relationSize > MAX_DEDUCED_RELATIONS || iterations > MAX_ITERATIONS) {
+      if (combinations > MAX_DEDUCED_RELATIONS || iterations > MAX_ITERATIONS) {
         // safety mechanism in case of an error in the algorithm
-        throw new RelationalSymbolicValue.TransitiveRelationExceededException("Used relations: " + relationSize + ". Iterations " + iterations);
+        throw new RelationalSymbolicValue.TransitiveRelationExceededException("Used relations: " + combinations + ". Iterations " + iterations);
       }
       iterations++;
       RelationalSymbolicValue relation = workList.pop();
-      for (RelationalSymbolicValue knownRelation : knownRelations) {
-        RelationalSymbolicValue r = relation.deduceTransitiveOrSimplified(knownRelation);
-        if (r != null && !knownRelations.contains(r) && newRelations.add(r)) {
-          workList.add(r);
+      List<RelationalSymbolicValue> leftRelations = knownRelationsByOperand.getOrDefault(relation.leftOp, Collections.emptyList());
+      for (RelationalSymbolicValue knownRelation : leftRelations) {
+        deduce(relation, knownRelation, knownRelations, newRelations, workList);
+      }
+      combinations += leftRelations.size();
+      if (relation.rightOp != relation.leftOp) {
+        List<RelationalSymbolicValue> rightRelations = knownRelationsByOperand.getOrDefault(relation.rightOp, Collections.emptyList());
+        for (RelationalSymbolicValue knownRelation : rightRelations) {
+          if (!knownRelation.hasOperand(relation.leftOp)) {
+            // relations on both operands were already combined above
+            deduce(relation, knownRelation, knownRelations, newRelations, workList);
+          }
         }
+        combinations += rightRelations.size();
       }
     }
     return newRelations;
   }
 
+  private static Map<SymbolicValue, List<RelationalSymbolicValue>> relationsByOperand(Set<RelationalSymbolicValue> relations) {
+    Map<SymbolicValue, List<RelationalSymbolicValue>> relationsByOperand = new HashMap<>();
+    for (RelationalSymbolicValue relation : relations) {
+      relationsByOperand.computeIfAbsent(relation.leftOp, k -> new ArrayList<>()).add(relation);
+      if (relation.rightOp != relation.leftOp) {
+        relationsByOperand.computeIfAbsent(relation.rightOp, k -> new ArrayList<>()).add(relation);
+      }
+    }
+    return relationsByOperand;
+  }
+
+  private static void deduce(RelationalSymbolicValue relation, RelationalSymbolicValue knownRelation, Set<RelationalSymbolicValue> knownRelations,
+    Set<RelationalSymbolicValue> newRelations, Deque<RelationalSymbolicValue> workList) {
+    RelationalSymbolicValue r = relation.deduceTransitiveOrSimplified(knownRelation);
+    if (r != null && !knownRelations.contains(r) && newRelations.add(r)) {
+      workList.add(r);
+    }
+  }
+
   @VisibleForTesting
   RelationalSymbolicValue deduceTransitiveOrSimplified(RelationalSymbolicValue other) {
     RelationalSymbolicValue result = simplify(other);
@@ -24,6 +24,7 @@ import com.google.common.collect.ImmutableSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
@@ -42,10 +43,11 @@ public class BehaviorCache {
   private  SemanticModel semanticModel;
   @VisibleForTesting
   public final Map<String, MethodBehavior> behaviors = new LinkedHashMap<>();
-  private final Map<String, MethodBehavior> bytecodeBehaviors = new LinkedHashMap<>();
+  private final Map<String, MethodBehavior> bytecodeBehaviors = new ConcurrentHashMap<>();
+  private final BehaviorStore store;
 
   // methods known to be well covered using bytecode-generated behavior
-  private static final Set<String> WHITELIST = ImmutableSet.of(
+  static final Set<String> WHITELIST = ImmutableSet.of(
     "java.lang.Math#max",
     "java.lang.Math#min",
 
@@ -101,8 +103,13 @@ public class BehaviorCache {
   }
 
   public BehaviorCache(SquidClassLoader classLoader, boolean crossFileEnabled) {
+    this(classLoader, crossFileEnabled, new BehaviorStore(classLoader));
+  }
+
+  public BehaviorCache(SquidClassLoader classLoader, boolean crossFileEnabled, BehaviorStore store) {
     this.classLoader = classLoader;
     this.crossFileEnabled = crossFileEnabled;
+    this.store = store;
   }
 
   public void setFileContext(@Nullable SymbolicExecutionVisitor sev,@Nullable SemanticModel semanticModel) {
@@ -110,10 +117,22 @@ public class BehaviorCache {
     this.semanticModel = semanticModel;
   }
 
+  /**
+   * Behaviors computed from the source of a file are not kept for the other files: methods of other files always get
+   * the behavior computed from their bytecode, whatever the order in which files are analyzed.
+   */
   public void cleanup() {
     behaviors.clear();
   }
 
+  /**
+   * Keeps the behaviors computed from bytecode for the next analyses, when the store is backed by a directory.
+   */
+  public void save() {
+    bytecodeBehaviors.values().forEach(store::add);
+    store.save();
+  }
+
   public MethodBehavior methodBehaviorForSymbol(Symbol.MethodSymbol symbol) {
     String signature = symbol.signature();
     boolean varArgs = ((JavaSymbol.MethodJavaSymbol) symbol).isVarArgs();
@@ -153,6 +172,10 @@ public class BehaviorCache {
       return null;
     }
 
+    MethodBehavior summary = store.get(signature);
+    if (summary != null) {
+      return summary;
+    }
     if (!bytecodeBehaviors.containsKey(signature)) {
       new BytecodeEGWalker(this, semanticModel).getMethodBehavior(signature, classLoader);
     }
@@ -173,10 +196,14 @@ public class BehaviorCache {
       return mb;
     }
     // check for bytecode signatures
-    return bytecodeBehaviors.get(signature);
+    mb = bytecodeBehaviors.get(signature);
+    if (mb != null) {
+      return mb;
+    }
+    return store.peek(signature);
   }
 
-  private static boolean isKnownSignature(String signature) {
+  static boolean isKnownSignature(String signature) {
     return WHITELIST.stream().anyMatch(signature::startsWith);
   }
 }
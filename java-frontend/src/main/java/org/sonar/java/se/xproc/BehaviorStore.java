@@ -0,0 +1,461 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.se.constraint.Constraint;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.TypedConstraint;
+
+/**
+ * Project-wide store of completed method behaviors computed from bytecode, shared by all the files of the analysis.
+ * Behaviors computed from source are not stored: the behavior of a method used by another file would otherwise depend on
+ * whether the file declaring it was analyzed before.
+ * Behaviors are kept as summaries: yields are copied without the exploded graph nodes they were created from.
+ * When a directory is provided, summaries are written to disk at the end of the analysis and reused by the next analyses.
+ * Each stored summary records a hash of the class file declaring the method and of the class files declaring the methods
+ * whose behavior was used to compute it, and is only reused when none of these class files changed. Summaries holding constraints other than enum constants or {@link TypedConstraint} are not stored on disk.
+ * Summaries precomputed for libraries by {@link BehaviorSummaries} can also be provided: they are validated the same way,
+ * and only used for methods without a summary of their own.
+ */
+public class BehaviorStore {
+
+  private static final Logger LOG = Loggers.get(BehaviorStore.class);
+
+  private static final int MAGIC = 0x534A4D42;
+  private static final int FORMAT_VERSION = 3;
+
+  private static final byte HAPPY_PATH_YIELD = 0;
+  private static final byte EXCEPTIONAL_YIELD = 1;
+  private static final byte ENUM_CONSTRAINT = 0;
+  private static final byte TYPED_CONSTRAINT = 1;
+
+  private final SquidClassLoader classLoader;
+  @Nullable
+  private final File file;
+  private final Map<String, MethodBehavior> summaries = new ConcurrentHashMap<>();
+  /**
+   * Summaries read from disk which were not used yet, indexed by signature. They are validated and decoded on first use.
+   */
+  private final Map<String, StoredBehavior> storedBehaviors;
+  /**
+   * Summaries read from a precomputed file, which is never written by the analysis.
+   */
+  private final Map<String, StoredBehavior> precomputedBehaviors;
+  private final Map<String, Optional<String>> classHashes = new ConcurrentHashMap<>();
+  private volatile boolean modified = false;
+
+  public BehaviorStore(SquidClassLoader classLoader) {
+    this(classLoader, null, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+  }
+
+  BehaviorStore(SquidClassLoader classLoader, File file) {
+    this(classLoader, file, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+  }
+
+  private BehaviorStore(SquidClassLoader classLoader, @Nullable File file, Map<String, StoredBehavior> storedBehaviors,
+    Map<String, StoredBehavior> precomputedBehaviors) {
+    this.classLoader = classLoader;
+    this.file = file;
+    this.storedBehaviors = storedBehaviors;
+    this.precomputedBehaviors = precomputedBehaviors;
+  }
+
+  public static BehaviorStore load(File directory, List<File> classpath, SquidClassLoader classLoader) {
+    return load(directory, classpath, classLoader, null);
+  }
+
+  /**
+   * @param directory where summaries are kept between analyses, null to keep them in memory only
+   * @param precomputed file written by {@link BehaviorSummaries}, or null
+   */
+  public static BehaviorStore load(@Nullable File directory, List<File> classpath, SquidClassLoader classLoader, @Nullable File precomputed) {
+    File file = null;
+    Map<String, StoredBehavior> storedBehaviors = new ConcurrentHashMap<>();
+    if (directory != null) {
+      file = new File(directory, "behaviors-" + Hashing.murmur3_128().hashString(classpath.toString(), StandardCharsets.UTF_8) + ".bin");
+      readFile(file, storedBehaviors);
+    }
+    Map<String, StoredBehavior> precomputedBehaviors = new ConcurrentHashMap<>();
+    if (precomputed != null) {
+      readFile(precomputed, precomputedBehaviors);
+    }
+    return new BehaviorStore(classLoader, file, storedBehaviors, precomputedBehaviors);
+  }
+
+  private static void readFile(File file, Map<String, StoredBehavior> storedBehaviors) {
+    if (!file.isFile()) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      read(in, storedBehaviors);
+      LOG.debug("Reusing {} method behaviors from {}", storedBehaviors.size(), file);
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Unable to read method behavior store " + file, e);
+      storedBehaviors.clear();
+    }
+  }
+
+  private static void read(DataInputStream in, Map<String, StoredBehavior> storedBehaviors) throws IOException {
+    if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !analyzerVersion().equals(in.readUTF())) {
+      return;
+    }
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      String signature = in.readUTF();
+      String classHash = in.readUTF();
+      int dependencyCount = in.readInt();
+      Map<String, String> dependencyHashes = new HashMap<>(dependencyCount);
+      for (int j = 0; j < dependencyCount; j++) {
+        dependencyHashes.put(in.readUTF(), in.readUTF());
+      }
+      byte[] content = new byte[in.readInt()];
+      in.readFully(content);
+      storedBehaviors.put(signature, new StoredBehavior(classHash, dependencyHashes, content));
+    }
+  }
+
+  private static String analyzerVersion() {
+    Package pkg = BehaviorStore.class.getPackage();
+    String version = pkg == null ? null : pkg.getImplementationVersion();
+    return version == null ? "" : version;
+  }
+
+  /**
+   * Makes a completed behavior available to the rest of the analysis.
+   */
+  public void add(MethodBehavior behavior) {
+    if (behavior.isComplete()) {
+      summaries.put(behavior.signature(), summary(behavior));
+      modified = true;
+    }
+  }
+
+  /**
+   * @return the summary of the method, without reading the summaries stored by previous analyses
+   */
+  @CheckForNull
+  public MethodBehavior peek(String signature) {
+    return summaries.get(signature);
+  }
+
+  @CheckForNull
+  public MethodBehavior get(String signature) {
+    MethodBehavior summary = summaries.get(signature);
+    if (summary != null) {
+      return summary;
+    }
+    summary = validSummary(signature, storedBehaviors.remove(signature));
+    if (summary == null) {
+      summary = validSummary(signature, precomputedBehaviors.remove(signature));
+    }
+    if (summary == null) {
+      return null;
+    }
+    MethodBehavior previous = summaries.putIfAbsent(signature, summary);
+    return previous == null ? summary : previous;
+  }
+
+  @CheckForNull
+  private MethodBehavior validSummary(String signature, @Nullable StoredBehavior storedBehavior) {
+    if (storedBehavior == null) {
+      return null;
+    }
+    if (!storedBehavior.classHash.equals(classHash(signature))
+      || !storedBehavior.dependencyHashes.equals(dependencyHashes(storedBehavior.dependencyHashes.keySet()))) {
+      modified = true;
+      return null;
+    }
+    try {
+      MethodBehavior summary = decode(signature, storedBehavior.content);
+      summary.dependencies.addAll(storedBehavior.dependencyHashes.keySet());
+      return summary;
+    } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+      LOG.debug("Unable to read stored method behavior of " + signature, e);
+      modified = true;
+      return null;
+    }
+  }
+
+  @CheckForNull
+  private String classHash(String signature) {
+    return hash(MethodBehavior.owner(signature)).orElse(null);
+  }
+
+  /**
+   * Classes which can not be found are kept with an empty hash: the summary is not reused once they can be found.
+   */
+  private Map<String, String> dependencyHashes(Set<String> dependencies) {
+    Map<String, String> hashes = new HashMap<>();
+    dependencies.forEach(dependency -> hashes.put(dependency, hash(dependency).orElse("")));
+    return hashes;
+  }
+
+  private Optional<String> hash(String className) {
+    return classHashes.computeIfAbsent(className, name -> Optional.ofNullable(classLoader.getBytesForClass(name))
+      .map(bytes -> Hashing.murmur3_128().hashBytes(bytes).toString()));
+  }
+
+  @VisibleForTesting
+  Set<String> storedSignatures() {
+    return storedBehaviors.keySet();
+  }
+
+  @VisibleForTesting
+  Set<String> precomputedSignatures() {
+    return precomputedBehaviors.keySet();
+  }
+
+  /**
+   * Writes the summaries to disk, if a directory was provided and summaries changed since they were loaded.
+   */
+  public void save() {
+    if (file == null || !modified) {
+      return;
+    }
+    try {
+      Files.createDirectories(file.getParentFile().toPath());
+      Path tmp = Files.createTempFile(file.getParentFile().toPath(), file.getName(), ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        write(out);
+      }
+      Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      LOG.debug("Unable to write method behavior store " + file, e);
+    }
+  }
+
+  private void write(DataOutputStream out) throws IOException {
+    Map<String, StoredBehavior> entries = new HashMap<>(storedBehaviors);
+    for (MethodBehavior summary : summaries.values()) {
+      String classHash = classHash(summary.signature());
+      if (classHash != null && isStorable(summary)) {
+        entries.put(summary.signature(), new StoredBehavior(classHash, dependencyHashes(summary.dependencies), encode(summary)));
+      }
+    }
+    out.writeInt(MAGIC);
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(analyzerVersion());
+    out.writeInt(entries.size());
+    for (Map.Entry<String, StoredBehavior> entry : entries.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeUTF(entry.getValue().classHash);
+      out.writeInt(entry.getValue().dependencyHashes.size());
+      for (Map.Entry<String, String> dependencyHash : entry.getValue().dependencyHashes.entrySet()) {
+        out.writeUTF(dependencyHash.getKey());
+        out.writeUTF(dependencyHash.getValue());
+      }
+      out.writeInt(entry.getValue().content.length);
+      out.write(entry.getValue().content);
+    }
+  }
+
+  private static MethodBehavior summary(MethodBehavior behavior) {
+    MethodBehavior summary = new MethodBehavior(behavior.signature(), behavior.isMethodVarArgs());
+    summary.setDeclaredExceptions(behavior.getDeclaredExceptions());
+    summary.dependencies.addAll(behavior.dependencies);
+    for (MethodYield yield : behavior.yields) {
+      MethodYield copy;
+      if (yield instanceof HappyPathYield) {
+        HappyPathYield happyPathYield = (HappyPathYield) yield;
+        HappyPathYield happyPathCopy = new HappyPathYield(summary);
+        happyPathCopy.setResult(happyPathYield.resultIndex(), happyPathYield.resultConstraint());
+        copy = happyPathCopy;
+      } else if (yield instanceof ExceptionalCheckBasedYield) {
+        // only meaningful with the node and the symbolic value causing the exception, used to report issues
+        continue;
+      } else {
+        ExceptionalYield exceptionalCopy = new ExceptionalYield(summary);
+        exceptionalCopy.setExceptionType(((ExceptionalYield) yield).exceptionTypeName());
+        copy = exceptionalCopy;
+      }
+      copy.parametersConstraints = new ArrayList<>(yield.parametersConstraints);
+      summary.yields.add(copy);
+    }
+    summary.completed();
+    return summary;
+  }
+
+  private static boolean isStorable(MethodBehavior behavior) {
+    return behavior.yields.stream()
+      .flatMap(yield -> {
+        Stream<ConstraintsByDomain> constraints = yield.parametersConstraints.stream();
+        if (yield instanceof HappyPathYield && ((HappyPathYield) yield).resultConstraint() != null) {
+          constraints = Stream.concat(constraints, Stream.of(((HappyPathYield) yield).resultConstraint()));
+        }
+        return constraints;
+      })
+      .flatMap(ConstraintsByDomain::stream)
+      .allMatch(constraint -> constraint instanceof Enum || constraint instanceof TypedConstraint);
+  }
+
+  private static byte[] encode(MethodBehavior behavior) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeBoolean(behavior.isMethodVarArgs());
+    out.writeInt(behavior.getDeclaredExceptions().size());
+    for (String declaredException : behavior.getDeclaredExceptions()) {
+      out.writeUTF(declaredException);
+    }
+    out.writeInt(behavior.yields.size());
+    for (MethodYield yield : behavior.yields) {
+      out.writeByte(yield instanceof HappyPathYield ? HAPPY_PATH_YIELD : EXCEPTIONAL_YIELD);
+      out.writeInt(yield.parametersConstraints.size());
+      for (ConstraintsByDomain constraints : yield.parametersConstraints) {
+        writeConstraints(out, constraints);
+      }
+      if (yield instanceof HappyPathYield) {
+        HappyPathYield happyPathYield = (HappyPathYield) yield;
+        out.writeInt(happyPathYield.resultIndex());
+        ConstraintsByDomain resultConstraint = happyPathYield.resultConstraint();
+        out.writeBoolean(resultConstraint != null);
+        if (resultConstraint != null) {
+          writeConstraints(out, resultConstraint);
+        }
+      } else {
+        String exceptionType = ((ExceptionalYield) yield).exceptionTypeName();
+        out.writeBoolean(exceptionType != null);
+        if (exceptionType != null) {
+          out.writeUTF(exceptionType);
+        }
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static void writeConstraints(DataOutputStream out, ConstraintsByDomain constraints) throws IOException {
+    List<Constraint> list = constraints.stream().collect(Collectors.toList());
+    out.writeInt(list.size());
+    for (Constraint constraint : list) {
+      if (constraint instanceof TypedConstraint) {
+        out.writeByte(TYPED_CONSTRAINT);
+        out.writeUTF(((TypedConstraint) constraint).type);
+      } else {
+        Enum<?> constant = (Enum<?>) constraint;
+        out.writeByte(ENUM_CONSTRAINT);
+        out.writeUTF(constant.getDeclaringClass().getName());
+        out.writeUTF(constant.name());
+      }
+    }
+  }
+
+  private static MethodBehavior decode(String signature, byte[] content) throws IOException, ClassNotFoundException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(content));
+    MethodBehavior behavior = new MethodBehavior(signature, in.readBoolean());
+    int declaredExceptionCount = in.readInt();
+    List<String> declaredExceptions = new ArrayList<>(declaredExceptionCount);
+    for (int i = 0; i < declaredExceptionCount; i++) {
+      declaredExceptions.add(in.readUTF());
+    }
+    behavior.setDeclaredExceptions(declaredExceptions);
+    int yieldCount = in.readInt();
+    for (int i = 0; i < yieldCount; i++) {
+      byte kind = in.readByte();
+      List<ConstraintsByDomain> parametersConstraints = new ArrayList<>();
+      int parameterCount = in.readInt();
+      for (int j = 0; j < parameterCount; j++) {
+        parametersConstraints.add(readConstraints(in));
+      }
+      MethodYield yield;
+      if (kind == HAPPY_PATH_YIELD) {
+        HappyPathYield happyPathYield = new HappyPathYield(behavior);
+        int resultIndex = in.readInt();
+        happyPathYield.setResult(resultIndex, in.readBoolean() ? readConstraints(in) : null);
+        yield = happyPathYield;
+      } else {
+        ExceptionalYield exceptionalYield = new ExceptionalYield(behavior);
+        if (in.readBoolean()) {
+          exceptionalYield.setExceptionType(in.readUTF());
+        }
+        yield = exceptionalYield;
+      }
+      yield.parametersConstraints = parametersConstraints;
+      behavior.yields.add(yield);
+    }
+    behavior.completed();
+    return behavior;
+  }
+
+  private static ConstraintsByDomain readConstraints(DataInputStream in) throws IOException, ClassNotFoundException {
+    ConstraintsByDomain constraints = ConstraintsByDomain.empty();
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      if (in.readByte() == TYPED_CONSTRAINT) {
+        constraints = constraints.put(new TypedConstraint(in.readUTF()));
+      } else {
+        constraints = constraints.put(enumConstraint(in.readUTF(), in.readUTF()));
+      }
+    }
+    return constraints;
+  }
+
+  private static Constraint enumConstraint(String className, String name) throws ClassNotFoundException {
+    Class<?> type = Class.forName(className, false, Constraint.class.getClassLoader());
+    if (type.isEnum() && Constraint.class.isAssignableFrom(type)) {
+      for (Object constant : type.getEnumConstants()) {
+        if (((Enum<?>) constant).name().equals(name)) {
+          return (Constraint) constant;
+        }
+      }
+    }
+    throw new IllegalStateException("Unknown constraint " + className + "." + name);
+  }
+
+  private static class StoredBehavior {
+    private final String classHash;
+    private final Map<String, String> dependencyHashes;
+    private final byte[] content;
+
+    private StoredBehavior(String classHash, Map<String, String> dependencyHashes, byte[] content) {
+      this.classHash = classHash;
+      this.dependencyHashes = dependencyHashes;
+      this.content = content;
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.sonar.java.resolve.BytecodeCompleter.ASM_API_VERSION;
+
+/**
+ * Precomputes, out of any analysis, the behaviors of the library methods listed in {@link BehaviorCache#WHITELIST}.
+ * The resulting file is provided to analyses with the {@code sonar.java.se.behaviorSummaries} property, so that they
+ * do not execute the bytecode of these methods again. Summaries are only used when the class file declaring the method
+ * is the same as the one they were computed from.
+ */
+public final class BehaviorSummaries {
+
+  private static final Logger LOG = Loggers.get(BehaviorSummaries.class);
+
+  private BehaviorSummaries() {
+  }
+
+  /**
+   * @param args the file to write, followed by the jars and directories of classes to read the methods from
+   */
+  public static void main(String[] args) {
+    if (args.length < 2) {
+      throw new IllegalArgumentException("Usage: BehaviorSummaries <output file> <classpath entry>...");
+    }
+    List<File> classpath = Arrays.stream(args).skip(1).map(File::new).collect(Collectors.toList());
+    int count = write(new File(args[0]), classpath);
+    LOG.info("{} method behaviors written to {}", count, args[0]);
+  }
+
+  /**
+   * @return the number of whitelisted methods found in the classpath
+   */
+  public static int write(File output, List<File> classpath) {
+    try (SquidClassLoader classLoader = new SquidClassLoader(classpath)) {
+      BehaviorCache behaviorCache = new BehaviorCache(classLoader, true, new BehaviorStore(classLoader, output));
+      CompilationUnitTree tree = (CompilationUnitTree) JavaParser.createParser().parse("class A {}");
+      behaviorCache.setFileContext(null, SemanticModel.createFor(tree, classLoader));
+      List<String> signatures = knownSignatures(classLoader);
+      signatures.forEach(behaviorCache::get);
+      behaviorCache.save();
+      return signatures.size();
+    }
+  }
+
+  static List<String> knownSignatures(SquidClassLoader classLoader) {
+    List<String> signatures = new ArrayList<>();
+    BehaviorCache.WHITELIST.stream()
+      .map(signature -> signature.substring(0, signature.indexOf('#')))
+      .distinct()
+      .forEach(className -> {
+        byte[] bytes = classLoader.getBytesForClass(className);
+        if (bytes != null) {
+          new ClassReader(bytes).accept(new ClassVisitor(ASM_API_VERSION) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+              String methodSignature = className + "#" + name + descriptor;
+              if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE | Opcodes.ACC_SYNTHETIC)) == 0 && BehaviorCache.isKnownSignature(methodSignature)) {
+                signatures.add(methodSignature);
+              }
+              return null;
+            }
+          }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        }
+      });
+    return signatures;
+  }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -61,6 +62,11 @@ public class ExceptionalYield extends MethodYield {
     this.exceptionType = exceptionType;
   }
 
+  @CheckForNull
+  String exceptionTypeName() {
+    return exceptionType;
+  }
+
   public Type exceptionType(SemanticModel semanticModel) {
     if (exceptionType == null) {
       return Symbols.unknownType;
@@ -53,6 +53,10 @@ public class MethodBehavior {
   private boolean complete = false;
   private boolean visited = false;
   private List<String> declaredExceptions;
+  /**
+   * Classes declaring the methods whose behavior was used to compute this behavior, directly or through other methods.
+   */
+  final Set<String> dependencies = new LinkedHashSet<>();
 
   public MethodBehavior(String signature, boolean varArgs) {
     this.signature = signature;
@@ -302,4 +306,25 @@ public class MethodBehavior {
   public void setDeclaredExceptions(List<String> declaredExceptions) {
     this.declaredExceptions = declaredExceptions;
   }
+
+  /**
+   * Records that the behavior of the invoked method was used to compute this behavior.
+   *
+   * @param behavior the behavior of the invoked method, null if it could not be computed
+   */
+  public void addDependency(String signature, @Nullable MethodBehavior behavior) {
+    dependencies.add(owner(signature));
+    if (behavior != null) {
+      dependencies.addAll(behavior.dependencies);
+    }
+    dependencies.remove(owner(this.signature));
+  }
+
+  public Set<String> dependencies() {
+    return Collections.unmodifiableSet(dependencies);
+  }
+
+  static String owner(String signature) {
+    return signature.substring(0, signature.indexOf('#'));
+  }
 }
@@ -181,6 +181,18 @@ public interface JavaFileScannerContext {
    */
   void reportIssue(JavaCheck javaCheck, Tree startTree, Tree endTree, String message, List<Location> secondaryLocations, @Nullable Integer cost);
 
+  /**
+   * Tells whether an issue of the check on the given line of the currently analyzed file would be filtered out, for instance
+   * because of a {@code @SuppressWarnings} annotation or because the code is generated. Such issues are dropped when reported:
+   * a check can skip computing their secondary locations.
+   * @param javaCheck check raising the issue
+   * @param line line of the start of the issue
+   * @return true if the issue would not be reported. Contexts which do not filter issues return false.
+   */
+  default boolean isIssueSuppressed(JavaCheck javaCheck, int line) {
+    return false;
+  }
+
   /**
    * Lines of the currently analyzed file.
    * @return list of file lines.
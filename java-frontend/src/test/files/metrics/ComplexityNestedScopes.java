@@ -0,0 +1,38 @@
+class NestedScopes {
+  Function<String, String> field = s -> s.isEmpty() ? "" : s; // lambda outside of any method
+
+  Object method(List<String> list) {
+    list.forEach(s -> {
+      if (s.isEmpty()) {
+        return;
+      }
+    });
+    if (list.isEmpty() && list != null) {
+      return new Runnable() {
+        @Override
+        public void run() {
+          for (String s : list) {
+            Supplier<Boolean> b = () -> s == null || s.isEmpty();
+          }
+        }
+      };
+    }
+    return null;
+  }
+
+  class Inner {
+    Inner(int i) {
+      switch (i) {
+        case 0:
+          break;
+        default:
+          Runnable r = new Runnable() {
+            public void run() {
+              while (true) {
+              }
+            }
+          };
+      }
+    }
+  }
+}
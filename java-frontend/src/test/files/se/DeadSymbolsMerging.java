@@ -0,0 +1,18 @@
+abstract class A {
+  abstract boolean cond();
+  abstract Object create();
+
+  int foo() {
+    Object o;
+    if (cond()) {
+      o = null;
+    } else {
+      o = create();
+    }
+    if (cond()) {
+      return o.hashCode();
+    }
+    // o is live out of the condition but dead here: both paths are merged
+    return 0;
+  }
+}
@@ -0,0 +1,16 @@
+class A {
+  static Object foo(Object o, boolean a, boolean b) {
+    if (a) {
+      System.out.println("a");
+    }
+    if (b) {
+      System.out.println("b");
+    }
+    for (int i = 0; i < 3; i++) {
+      if (o == null) {
+        return null;
+      }
+    }
+    return o;
+  }
+}
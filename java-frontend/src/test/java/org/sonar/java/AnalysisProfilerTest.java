@@ -0,0 +1,139 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnalysisProfilerTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @Test
+  public void phases_rules_and_files_are_reported() throws Exception {
+    File reportFile = new File(temp.newFolder(), "main.json");
+    AtomicLong allocated = new AtomicLong();
+    AnalysisProfiler profiler = new AnalysisProfiler(reportFile, () -> allocated.addAndGet(100));
+    File fileA = new File("A.java");
+    File fileB = new File("B.java");
+    JavaFileScanner rule = new RuleS42();
+
+    profiler.recordFile(AnalysisProfiler.Phase.PARSE, fileA, profiler.start());
+    profiler.recordFile(AnalysisProfiler.Phase.PARSE, fileB, profiler.start());
+    profiler.recordFile(AnalysisProfiler.Phase.SEMANTIC, fileA, profiler.start());
+    profiler.recordVisitor(rule, profiler.start());
+    profiler.recordVisitor(rule, profiler.start());
+    profiler.counter(new Object()).add(42, 0);
+
+    assertThat(profiler.phase(AnalysisProfiler.Phase.PARSE).calls()).isEqualTo(2);
+    assertThat(profiler.phase(AnalysisProfiler.Phase.PARSE).allocatedBytes()).isEqualTo(200);
+    assertThat(profiler.phase(AnalysisProfiler.Phase.SYMBOLIC_EXECUTION).calls()).isZero();
+    assertThat(profiler.file(fileA).calls()).isEqualTo(2);
+    assertThat(profiler.counter(rule).calls()).isEqualTo(2);
+    assertThat(profiler.counter(new RuleS42()).calls()).as("rules are identified by their key").isEqualTo(2);
+
+    profiler.report();
+    JsonObject report;
+    try (Reader reader = Files.newBufferedReader(reportFile.toPath(), StandardCharsets.UTF_8)) {
+      report = new Gson().fromJson(reader, JsonObject.class);
+    }
+    assertThat(keys(report.getAsJsonObject("phases"))).containsExactly("PARSE", "SEMANTIC", "SYMBOLIC_EXECUTION", "FILE_VISITORS", "SUBSCRIPTION_VISITORS");
+    assertThat(report.getAsJsonObject("phases").getAsJsonObject("SEMANTIC").get("allocatedBytes").getAsLong()).isEqualTo(100);
+    assertThat(keys(report.getAsJsonObject("rules"))).containsExactly("S42", "java.lang.Object");
+    assertThat(report.getAsJsonObject("rules").getAsJsonObject("S42").get("calls").getAsLong()).isEqualTo(2);
+    assertThat(keys(report.getAsJsonObject("files"))).containsExactly("A.java", "B.java");
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("Analysis profile written to " + reportFile);
+    assertThat(logTester.logs(LoggerLevel.INFO).stream().anyMatch(log -> log.startsWith("Slowest rules:") && log.contains("S42: "))).isTrue();
+  }
+
+  @Test
+  public void visitors_bridge_reports_phases_at_end_of_analysis() throws Exception {
+    File reportFile = new File(temp.newFolder(), "main.json");
+    List<Tree> visited = new ArrayList<>();
+    IssuableSubscriptionVisitor subscriptionVisitor = new IssuableSubscriptionVisitor() {
+      @Override
+      public List<Tree.Kind> nodesToVisit() {
+        return ImmutableList.of(Tree.Kind.CLASS, Tree.Kind.METHOD);
+      }
+
+      @Override
+      public void visitNode(Tree tree) {
+        visited.add(tree);
+      }
+    };
+    JavaFileScanner fileScanner = new RuleS42();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Arrays.asList(subscriptionVisitor, fileScanner), new ArrayList<>(), null);
+    AnalysisProfiler profiler = new AnalysisProfiler(reportFile);
+    visitorsBridge.setAnalysisProfiler(profiler);
+    File file = new File("A.java");
+    visitorsBridge.setCurrentFile(file);
+    visitorsBridge.visitFile(JavaParser.createParser().parse("class A { void f() {} void g() {} }"));
+
+    assertThat(visited).hasSize(3);
+    assertThat(profiler.counter(subscriptionVisitor).calls()).as("visitNode, leaveNode and leaveFile").isEqualTo(7);
+    assertThat(profiler.counter(fileScanner).calls()).isEqualTo(1);
+    assertThat(profiler.phase(AnalysisProfiler.Phase.SEMANTIC).calls()).isEqualTo(1);
+    assertThat(profiler.phase(AnalysisProfiler.Phase.FILE_VISITORS).calls()).isEqualTo(1);
+    assertThat(profiler.phase(AnalysisProfiler.Phase.SUBSCRIPTION_VISITORS).calls()).isEqualTo(1);
+    assertThat(profiler.file(file).calls()).isEqualTo(3);
+
+    visitorsBridge.endOfAnalysis();
+    assertThat(reportFile).isFile();
+  }
+
+  private static List<String> keys(JsonObject object) {
+    return object.entrySet().stream().map(Map.Entry::getKey).collect(Collectors.toList());
+  }
+
+  @org.sonar.check.Rule(key = "S42")
+  private static class RuleS42 implements JavaFileScanner {
+    @Override
+    public void scanFile(org.sonar.plugins.java.api.JavaFileScannerContext context) {
+      // no issue
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AnalysisResultCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final File fileA = new File("A.java");
+  private final File fileB = new File("B.java");
+  private final File fileC = new File("C.java");
+  private final File fileD = new File("D.java");
+  private final Map<File, String> contents = new HashMap<>();
+  private final JavaCheck check = new JavaCheck() {
+  };
+
+  @Test
+  public void results_of_unchanged_files_are_reused() throws Exception {
+    File cacheFile = new File(temp.newFolder(), "main.json");
+    contents.put(fileA, "package p; class A { }");
+    contents.put(fileB, "package p; class B { A a; }");
+    contents.put(fileC, "package p; class C { }");
+
+    AnalysisResultCache cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    assertThat(cache.analysisOrder(Arrays.asList(fileA, fileB, fileC), contents::get)).containsExactly(fileA, fileB, fileC);
+    analyze(cache, fileA, fileB, fileC);
+    AnalyzerMessage issue = new AnalyzerMessage(check, fileC, new AnalyzerMessage.TextSpan(1, 11, 1, 18), "message", 3);
+    issue.flows.add(Collections.singletonList(new AnalyzerMessage(check, fileC, new AnalyzerMessage.TextSpan(1, 17, 1, 18), "secondary", 0)));
+    cache.record(fileC, issue, "squid:S42");
+    cache.save();
+
+    // A changes: B depends on A and is analyzed again, C is reused
+    contents.put(fileA, "package p; class A { int i; }");
+    cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    assertThat(cache.analysisOrder(Arrays.asList(fileC, fileB, fileA), contents::get)).containsExactly(fileA, fileC, fileB);
+    assertThat(cache.canReuse(fileA)).isFalse();
+    assertThat(cache.changedTypes()).containsExactly("p.A");
+    assertThat(cache.canReuse(fileB)).isFalse();
+    assertThat(cache.canReuse(fileC)).isTrue();
+
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    cache.replay(fileC, ImmutableMap.of("squid:S42", check), sonarComponents);
+    ArgumentCaptor<AnalyzerMessage> replayed = ArgumentCaptor.forClass(AnalyzerMessage.class);
+    verify(sonarComponents, times(1)).reportIssue(replayed.capture());
+    AnalyzerMessage replayedIssue = replayed.getValue();
+    assertThat(replayedIssue.getCheck()).isSameAs(check);
+    assertThat(replayedIssue.getFile()).isEqualTo(fileC);
+    assertThat(replayedIssue.getMessage()).isEqualTo("message");
+    assertThat(replayedIssue.getCost()).isEqualTo(3.0);
+    assertThat(replayedIssue.primaryLocation().toString()).isEqualTo("(1:11)-(1:18)");
+    assertThat(replayedIssue.flows).hasSize(1);
+    assertThat(replayedIssue.flows.get(0).get(0).getMessage()).isEqualTo("secondary");
+  }
+
+  @Test
+  public void changes_invalidate_dependents_transitively() throws Exception {
+    File cacheFile = new File(temp.newFolder(), "main.json");
+    contents.put(fileA, "package p; class A { static int f() { return 0; } }");
+    contents.put(fileB, "package p; class B extends A { static int g() { return A.f(); } }");
+    contents.put(fileC, "package p; class C extends B { int h() { return 1 / B.g(); } }");
+    contents.put(fileD, "package p; class D { }");
+    AnalysisResultCache cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    cache.analysisOrder(Arrays.asList(fileA, fileB, fileC, fileD), contents::get);
+    analyze(cache, fileA, fileB, fileC, fileD);
+    cache.save();
+
+    // C does not reference A, but its supertype and the behavior of B.g() depend on A
+    contents.put(fileA, "package p; class A { static int f() { return 1; } }");
+    cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    assertThat(cache.analysisOrder(Arrays.asList(fileD, fileC, fileB, fileA), contents::get)).containsExactly(fileA, fileD, fileC, fileB);
+    analyze(cache, fileA);
+    assertThat(cache.canReuse(fileD)).isTrue();
+    assertThat(cache.canReuse(fileC)).isFalse();
+    assertThat(cache.canReuse(fileB)).isFalse();
+  }
+
+  @Test
+  public void deleted_files_invalidate_their_dependents() throws Exception {
+    File cacheFile = new File(temp.newFolder(), "main.json");
+    contents.put(fileA, "package p; class A { }");
+    contents.put(fileB, "package p; class B { A a; }");
+    AnalysisResultCache cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    cache.analysisOrder(Arrays.asList(fileA, fileB), contents::get);
+    analyze(cache, fileA, fileB);
+    cache.save();
+
+    cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    cache.analysisOrder(Collections.singletonList(fileB), contents::get);
+    assertThat(cache.canReuse(fileB)).isFalse();
+  }
+
+  @Test
+  public void results_are_discarded_when_configuration_changes() throws Exception {
+    File cacheFile = new File(temp.newFolder(), "main.json");
+    contents.put(fileA, "package p; class A { }");
+    AnalysisResultCache cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    cache.analysisOrder(Collections.singletonList(fileA), contents::get);
+    analyze(cache, fileA);
+    cache.save();
+
+    cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    cache.analysisOrder(Collections.singletonList(fileA), contents::get);
+    assertThat(cache.canReuse(fileA)).isTrue();
+    cache.discard(fileA);
+    cache.save();
+
+    cache = AnalysisResultCache.load(cacheFile, "fingerprint");
+    cache.analysisOrder(Collections.singletonList(fileA), contents::get);
+    assertThat(cache.canReuse(fileA)).isFalse();
+
+    cache = AnalysisResultCache.load(cacheFile, "other fingerprint");
+    cache.analysisOrder(Collections.singletonList(fileA), contents::get);
+    assertThat(cache.canReuse(fileA)).isFalse();
+  }
+
+  @Test
+  public void fingerprint_depends_on_rules_and_java_version() {
+    ActiveRule rule = mock(ActiveRule.class);
+    when(rule.ruleKey()).thenReturn(RuleKey.of("squid", "S42"));
+    when(rule.params()).thenReturn(Collections.singletonMap("max", "3"));
+    List<File> classpath = Collections.emptyList();
+    String fingerprint = AnalysisResultCache.fingerprint(new JavaVersionImpl(8), classpath, Collections.emptyList(), Collections.singletonList(rule));
+    assertThat(AnalysisResultCache.fingerprint(new JavaVersionImpl(8), classpath, Collections.emptyList(), Collections.singletonList(rule))).isEqualTo(fingerprint);
+    assertThat(AnalysisResultCache.fingerprint(new JavaVersionImpl(11), classpath, Collections.emptyList(), Collections.singletonList(rule))).isNotEqualTo(fingerprint);
+    assertThat(AnalysisResultCache.fingerprint(new JavaVersionImpl(8), classpath, Collections.emptyList(), Collections.emptyList())).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void fingerprint_depends_on_class_directories_of_other_modules() throws IOException {
+    File output = temp.newFolder("output");
+    File otherModule = temp.newFolder("other");
+    File ownClass = new File(output, "A.class");
+    File otherClass = new File(otherModule, "B.class");
+    Files.write(ownClass.toPath(), new byte[] {1});
+    Files.write(otherClass.toPath(), new byte[] {1});
+    List<File> classpath = Arrays.asList(output, otherModule);
+    List<File> outputDirectories = Collections.singletonList(output);
+    String fingerprint = AnalysisResultCache.fingerprint(new JavaVersionImpl(8), classpath, outputDirectories, Collections.emptyList());
+
+    Files.write(ownClass.toPath(), new byte[] {2});
+    assertThat(AnalysisResultCache.fingerprint(new JavaVersionImpl(8), classpath, outputDirectories, Collections.emptyList()))
+      .as("changes of the module are covered by the dependencies between files").isEqualTo(fingerprint);
+
+    Files.write(otherClass.toPath(), new byte[] {2});
+    assertThat(AnalysisResultCache.fingerprint(new JavaVersionImpl(8), classpath, outputDirectories, Collections.emptyList())).isNotEqualTo(fingerprint);
+  }
+
+  private void analyze(AnalysisResultCache cache, File... files) throws IOException {
+    // as during an analysis, types of the other files are resolved from the compiled project
+    SquidClassLoader classLoader = new SquidClassLoader(Collections.singletonList(compileContents()));
+    for (File file : files) {
+      CompilationUnitTree tree = (CompilationUnitTree) JavaParser.createParser().parse(contents.get(file));
+      SemanticModel.createFor(tree, classLoader);
+      cache.startFile(file, tree);
+    }
+    classLoader.close();
+  }
+
+  private File compileContents() throws IOException {
+    File sources = temp.newFolder();
+    File classes = temp.newFolder();
+    List<String> arguments = new ArrayList<>(Arrays.asList("-source", "1.8", "-target", "1.8", "-d", classes.getPath()));
+    for (Map.Entry<File, String> content : contents.entrySet()) {
+      File source = new File(sources, content.getKey().getName());
+      Files.write(source.toPath(), content.getValue().getBytes(StandardCharsets.UTF_8));
+      arguments.add(source.getPath());
+    }
+    assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, arguments.toArray(new String[0]))).isZero();
+    return classes;
+  }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnalysisWatchdogTest {
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @Test
+  public void slowest_files_are_reported() {
+    AnalysisWatchdog watchdog = new AnalysisWatchdog(0, 0);
+    for (int i = 0; i < 15; i++) {
+      watchdog.startFile(new File("File" + i + ".java"), TimeUnit.SECONDS.toNanos(i));
+      assertThat(watchdog.fileBudgetExceeded("rules")).isFalse();
+      assertThat(watchdog.methodDeadline()).isEqualTo(Long.MAX_VALUE);
+      watchdog.endFile();
+    }
+    List<String> slowestFiles = watchdog.slowestFiles().stream().map(f -> f.file().getPath()).collect(Collectors.toList());
+    assertThat(slowestFiles).hasSize(10);
+    assertThat(slowestFiles.get(0)).isEqualTo("File14.java");
+    assertThat(slowestFiles.get(9)).isEqualTo("File5.java");
+
+    watchdog.report();
+    assertThat(logTester.logs(LoggerLevel.INFO)).hasSize(1);
+    assertThat(logTester.logs(LoggerLevel.INFO).get(0)).startsWith("Slowest files:").contains("File14.java: 14000 ms");
+    assertThat(logTester.logs(LoggerLevel.WARN)).isEmpty();
+  }
+
+  @Test
+  public void file_budget_includes_parsing() {
+    AnalysisWatchdog watchdog = new AnalysisWatchdog(1_000, 10_000);
+    File file = new File("Slow.java");
+    watchdog.startFile(file, TimeUnit.SECONDS.toNanos(2));
+    assertThat(watchdog.methodDeadline()).isLessThan(System.nanoTime());
+    assertThat(watchdog.fileBudgetExceeded("rules")).isTrue();
+    assertThat(watchdog.fileBudgetExceeded("rules")).isTrue();
+    assertThat(watchdog.fileInterrupted()).isTrue();
+    watchdog.methodBudgetExceeded("foo#3");
+    watchdog.endFile();
+
+    watchdog.startFile(new File("Fast.java"), 0);
+    assertThat(watchdog.fileBudgetExceeded("rules")).isFalse();
+    assertThat(watchdog.methodDeadline()).isGreaterThan(System.nanoTime());
+    watchdog.endFile();
+
+    watchdog.report();
+    assertThat(logTester.logs(LoggerLevel.WARN)).containsExactly(
+      "Time budget of 1000 ms exceeded on file Slow.java, skipping rules",
+      "Time budget exceeded by symbolic execution of method foo#3 in file Slow.java, issues found so far are kept",
+      "Time budget exceeded on 1 files and 1 methods, their analysis is incomplete");
+  }
+
+  @Test
+  public void methods_explored_for_their_caller_do_not_extend_its_deadline() {
+    AnalysisWatchdog watchdog = new AnalysisWatchdog(0, 10_000);
+    watchdog.startFile(new File("A.java"), 0);
+    long callerDeadline = watchdog.methodDeadline();
+    assertThat(watchdog.methodDeadline(callerDeadline)).isEqualTo(callerDeadline);
+    long expiredDeadline = System.nanoTime() - 1;
+    assertThat(watchdog.methodDeadline(expiredDeadline)).isEqualTo(expiredDeadline);
+    watchdog.endFile();
+
+    watchdog = new AnalysisWatchdog(0, 0);
+    assertThat(watchdog.methodDeadline(callerDeadline)).isEqualTo(callerDeadline);
+  }
+
+  @Test
+  public void rules_are_skipped_when_file_budget_is_exceeded() {
+    List<String> executed = new ArrayList<>();
+    JavaFileScanner rule = new RuleS42(executed);
+    JavaFileScanner notARule = context -> executed.add("not a rule");
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Arrays.asList(rule, notARule), new ArrayList<>(), null);
+    AnalysisWatchdog watchdog = new AnalysisWatchdog(1_000, 0);
+    visitorsBridge.setAnalysisWatchdog(watchdog);
+    File file = new File("A.java");
+    visitorsBridge.setCurrentFile(file);
+
+    watchdog.startFile(file, 0);
+    visitorsBridge.visitFile(JavaParser.createParser().parse("class A { }"));
+    watchdog.endFile();
+    assertThat(executed).containsExactly("S42", "not a rule");
+
+    executed.clear();
+    watchdog.startFile(file, TimeUnit.SECONDS.toNanos(2));
+    visitorsBridge.visitFile(JavaParser.createParser().parse("class A { }"));
+    watchdog.endFile();
+    assertThat(executed).containsExactly("not a rule");
+  }
+
+  @org.sonar.check.Rule(key = "S42")
+  private static class RuleS42 implements JavaFileScanner {
+    private final List<String> executed;
+
+    RuleS42(List<String> executed) {
+      this.executed = executed;
+    }
+
+    @Override
+    public void scanFile(org.sonar.plugins.java.api.JavaFileScannerContext context) {
+      executed.add("S42");
+    }
+  }
+}
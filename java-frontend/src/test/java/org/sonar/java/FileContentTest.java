@@ -0,0 +1,70 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileContentTest {
+
+  @Test
+  public void lines_are_split_as_by_scanner() {
+    String[] contents = {
+      "",
+      "a",
+      "\n",
+      "a\nb",
+      "a\nb\n",
+      "a\r\nb\r\n",
+      "a\rb\r",
+      "a\n\n\nb",
+      "\r\n\r\n",
+      "a\r\r\nb",
+      "a\u2028b\u2029c\u0085d",
+      "  class A {\n\tint i;\n}\n"
+    };
+    for (String content : contents) {
+      assertThat(new FileContent(content).lines()).as(content).containsExactlyElementsOf(scannerLines(content));
+    }
+  }
+
+  @Test
+  public void content_and_lines_are_shared() {
+    FileContent fileContent = new FileContent("a\nb");
+    assertThat(fileContent.content()).isEqualTo("a\nb");
+    assertThat(fileContent.lines()).isSameAs(fileContent.lines());
+    assertThat(fileContent.lines().get(1)).isSameAs(fileContent.lines().get(1));
+  }
+
+  private static List<String> scannerLines(String content) {
+    List<String> lines = new ArrayList<>();
+    try (Scanner scanner = new Scanner(content)) {
+      while (scanner.hasNextLine()) {
+        lines.add(scanner.nextLine());
+      }
+    }
+    return lines;
+  }
+
+}
@@ -22,7 +22,9 @@ package org.sonar.java;
 import com.google.common.collect.Lists;
 import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import javax.annotation.Nullable;
 import org.junit.Before;
 import org.junit.Test;
@@ -32,11 +34,22 @@ import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.batch.sensor.measure.Measure;
 import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.utils.PathUtils;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.ast.visitors.ComplexityVisitor;
 import org.sonar.java.model.JavaVersionImpl;
 import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 public class MeasurerTest {
 
@@ -67,6 +80,15 @@ public class MeasurerTest {
     checkMetric("Complexity.java", "complexity", 15);
   }
 
+  @Test
+  public void measures_are_computed_by_the_traversal_shared_with_the_rules() {
+    Measurer measurer = spy(new Measurer(fs, context, mock(NoSonarFilter.class)));
+    String componentKey = scan("Complexity.java", measurer);
+    verify(measurer, never()).scanFile(any());
+    assertThat(context.measures(componentKey)).hasSize(NB_OF_METRICS);
+    assertThat(context.measure(componentKey, "complexity").value()).isEqualTo(15);
+  }
+
   @Test
   public void verify_cognitive_complexity_metric() {
     checkMetric("CognitiveComplexity.java", "cognitive_complexity", 25);
@@ -77,6 +99,39 @@ public class MeasurerTest {
     checkMetric("Complexity.java", "complexity_in_classes", 15);
   }
 
+  @Test
+  public void verify_complexity_in_functions() {
+    // complexity of the lambda is only counted in the complexity of the file
+    checkMetric("Complexity.java", "complexity_in_functions", 13);
+  }
+
+  @Test
+  public void complexity_of_nested_scopes_is_the_one_of_complexity_visitor() {
+    String filename = "ComplexityNestedScopes.java";
+    CompilationUnitTree cut = (CompilationUnitTree) JavaParser.createParser().parse(new File(baseDir, filename));
+    List<MethodTree> methods = new ArrayList<>();
+    cut.accept(new BaseTreeVisitor() {
+      @Override
+      public void visitClass(ClassTree tree) {
+        if (tree.simpleName() != null) {
+          // methods of anonymous classes are not functions
+          tree.members().stream().filter(member -> member.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)).map(MethodTree.class::cast).forEach(methods::add);
+        }
+        super.visitClass(tree);
+      }
+    });
+    ComplexityVisitor complexityVisitor = new ComplexityVisitor();
+    int fileComplexity = complexityVisitor.getNodes(cut).size();
+    int complexityInFunctions = methods.stream().mapToInt(method -> complexityVisitor.getNodes(method).size()).sum();
+    assertThat(fileComplexity).isEqualTo(15);
+    assertThat(complexityInFunctions).isEqualTo(5);
+
+    String componentKey = scan(filename);
+    assertThat(context.measure(componentKey, "complexity").value()).isEqualTo(fileComplexity);
+    assertThat(context.measure(componentKey, "complexity_in_functions").value()).isEqualTo(complexityInFunctions);
+    assertThat(context.measure(componentKey, "functions").value()).isEqualTo(methods.size());
+  }
+
   @Test
   public void verify_function_metric() {
     checkMetric("Complexity.java", "functions", 8);
@@ -107,20 +162,28 @@ public class MeasurerTest {
   }
 
   private void checkMetric(String filename, String metric, @Nullable Number expectedValue, int numberOfMetrics) {
+    String componentKey = scan(filename);
+    assertThat(context.measures(componentKey)).hasSize(numberOfMetrics);
+    Measure<Serializable> measure = context.measure(componentKey, metric);
+    if (expectedValue == null) {
+      assertThat(measure).isNull();
+    } else {
+      assertThat(measure.value()).isEqualTo(expectedValue);
+    }
+  }
+
+  private String scan(String filename) {
+    return scan(filename, new Measurer(fs, context, mock(NoSonarFilter.class)));
+  }
+
+  private String scan(String filename, Measurer measurer) {
     String relativePath = PathUtils.sanitize(new File(baseDir, filename).getPath());
     TestInputFileBuilder inputFile = new TestInputFileBuilder(context.module().key(), relativePath);
     inputFile.setModuleBaseDir(fs.baseDirPath());
     fs.add(inputFile.build());
-    Measurer measurer = new Measurer(fs, context, mock(NoSonarFilter.class));
     JavaSquid squid = new JavaSquid(new JavaVersionImpl(), null, measurer, null, null, new JavaCheck[0]);
     squid.scan(Lists.newArrayList(new File(baseDir, filename)), Collections.emptyList());
-    assertThat(context.measures("projectKey:" + relativePath)).hasSize(numberOfMetrics);
-    Measure<Serializable> measure = context.measure("projectKey:" + relativePath, metric);
-    if (expectedValue == null) {
-      assertThat(measure).isNull();
-    } else {
-      assertThat(measure.value()).isEqualTo(expectedValue);
-    }
+    return "projectKey:" + relativePath;
   }
 
 }
@@ -30,6 +30,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
@@ -53,6 +54,7 @@ import org.sonar.api.measures.FileLinesContext;
 import org.sonar.api.measures.FileLinesContextFactory;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.Version;
+import org.sonar.java.filters.SonarJavaIssueFilter;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 
@@ -283,6 +285,67 @@ public class SonarComponentsTest {
 
   }
 
+  @Test
+  public void suppressed_issues_are_not_reported() {
+    JavaCheck expectedCheck = new CustomCheck();
+    CheckRegistrar expectedRegistrar = getRegistrar(expectedCheck);
+    SensorContextTester context = SensorContextTester.create(new File(""));
+
+    File file = new File("file.java");
+    TestInputFileBuilder inputFile = new TestInputFileBuilder("", "file.java");
+    inputFile.setLines(45);
+    int[] lineStartOffsets = new int[45];
+    lineStartOffsets[35] = 12;
+    lineStartOffsets[42] = 1;
+    int lastValidOffset = 420;
+    inputFile.setOriginalLineStartOffsets(lineStartOffsets);
+    inputFile.setOriginalLineEndOffsets(computeLineEndOffsets(lineStartOffsets, lastValidOffset));
+    inputFile.setLastValidOffset(lastValidOffset);
+    context.fileSystem().add(inputFile.build());
+
+    RuleKey ruleKey = RuleKey.of("MyRepo", "CustomCheck");
+    when(this.checks.ruleKey(any(JavaCheck.class))).thenReturn(ruleKey);
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, context.fileSystem(), null, null, checkFactory, new CheckRegistrar[] {
+      expectedRegistrar
+    });
+    sonarComponents.setSensorContext(context);
+    SonarJavaIssueFilter issueFilter = mock(SonarJavaIssueFilter.class);
+    when(issueFilter.isSuppressed(file, ruleKey, 42)).thenReturn(true);
+    sonarComponents.setIssueFilter(issueFilter);
+
+    assertThat(sonarComponents.isIssueSuppressed(file, expectedCheck, 42)).isTrue();
+    assertThat(sonarComponents.isIssueSuppressed(file, expectedCheck, 35)).isFalse();
+    assertThat(sonarComponents.isIssueSuppressed(file, expectedCheck, -1)).isFalse();
+
+    sonarComponents.addIssue(file, expectedCheck, 42, "suppressed message", null);
+    sonarComponents.addIssue(file, expectedCheck, 35, "reported message", null);
+    assertThat(context.allIssues()).extracting(issue -> issue.primaryLocation().message()).containsExactly("reported message");
+
+    sonarComponents.setIssueFilter(null);
+    assertThat(sonarComponents.isIssueSuppressed(file, expectedCheck, 42)).isFalse();
+  }
+
+  @Test
+  public void registered_input_files_are_found_without_querying_the_file_system() {
+    DefaultFileSystem fileSystem = spy(new DefaultFileSystem(new File("")));
+    InputFile registered = new TestInputFileBuilder("", "registered.java").build();
+    InputFile added = new TestInputFileBuilder("", "added.java").build();
+    fileSystem.add(registered);
+    fileSystem.add(added);
+    SonarComponents sonarComponents = new SonarComponents(fileLinesContextFactory, fileSystem, null, null, checkFactory);
+    sonarComponents.registerInputFiles(Collections.singletonList(registered));
+
+    assertThat(sonarComponents.inputFromIOFile(registered.file())).isSameAs(registered);
+    verify(fileSystem, never()).inputFile(any());
+
+    // files which were not registered are looked up once
+    assertThat(sonarComponents.inputFromIOFile(added.file())).isSameAs(added);
+    assertThat(sonarComponents.inputFromIOFile(added.file())).isSameAs(added);
+    verify(fileSystem, times(1)).inputFile(any());
+
+    assertThat(sonarComponents.inputFromIOFile(new File("unknown.java"))).isNull();
+  }
+
   @Test
   public void fail_on_empty_location() {
     JavaCheck expectedCheck = new CustomCheck();
@@ -354,7 +417,37 @@ public class SonarComponentsTest {
     assertThat(fileLines).hasSize(5);
     assertThat(fileLines.get(0)).hasSize(11);
 
-    verify(inputFile, times(1)).contents();
+    // content is not kept outside of the analysis of the file
+    verify(inputFile, times(2)).contents();
+    reset(inputFile);
+  }
+
+  @Test
+  public void file_content_is_only_kept_while_retained() throws Exception {
+    File file = new File("src/test/files/Kanji.java");
+    DefaultInputFile inputFile = spy(new TestInputFileBuilder("", file.getPath())
+      .initMetadata(new String(java.nio.file.Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+      .setCharset(StandardCharsets.UTF_8)
+      .build());
+
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    context.fileSystem().add(inputFile);
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null);
+    context.setRuntime(SonarRuntimeImpl.forSonarLint(V6_7));
+    sonarComponents.setSensorContext(context);
+
+    String content = sonarComponents.readFileContent(file);
+    sonarComponents.readFileContent(file);
+    verify(inputFile, times(2)).contents();
+
+    sonarComponents.retainFileContent(file, content);
+    assertThat(sonarComponents.fileContent(file)).isSameAs(content);
+    assertThat(sonarComponents.fileLines(file)).hasSize(5);
+    verify(inputFile, times(2)).contents();
+
+    sonarComponents.releaseFileContent(file);
+    assertThat(sonarComponents.fileContent(file)).isEqualTo(content);
+    verify(inputFile, times(3)).contents();
     reset(inputFile);
   }
 
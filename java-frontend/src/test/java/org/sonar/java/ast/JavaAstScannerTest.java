@@ -28,8 +28,13 @@ import com.sonar.sslr.api.typed.GrammarBuilder;
 import java.io.File;
 import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Before;
@@ -69,6 +74,7 @@ import org.sonar.sslr.grammar.LexerlessGrammarBuilder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -225,6 +231,41 @@ public class JavaAstScannerTest {
       .contains("at org.sonar.java.ast.JavaAstScannerTest");
   }
 
+  @Test
+  public void parallel_parsing_visits_files_in_order() throws Exception {
+    List<File> files = new ArrayList<>();
+    for (String path : Arrays.asList("src/test/files/metrics/Comments.java", "src/test/files/metrics/NoSonar.java", "src/test/resources/AstScannerParseError.txt",
+      "src/test/files/Kanji.java", "src/test/resources/se/MethodBehavior.java")) {
+      File file = new File(path);
+      fs.add(new TestInputFileBuilder("", path)
+        .initMetadata(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+        .setCharset(StandardCharsets.UTF_8)
+        .build());
+      files.add(file);
+    }
+    context.settings().setProperty(SonarComponents.PARSING_THREADS_KEY, 3);
+    SonarComponents sonarComponents = spy(new SonarComponents(null, fs, null, null, null));
+    sonarComponents.setSensorContext(context);
+    Set<Thread> resolvingThreads = Collections.synchronizedSet(new HashSet<>());
+    doAnswer(invocation -> {
+      resolvingThreads.add(Thread.currentThread());
+      return invocation.callRealMethod();
+    }).when(sonarComponents).inputFromIOFile(any(File.class));
+    List<File> visitedFiles = new ArrayList<>();
+    JavaFileScanner visitor = scannerContext -> visitedFiles.add(scannerContext.getFile());
+
+    JavaAstScanner scanner = new JavaAstScanner(JavaParser.createParser(), sonarComponents);
+    scanner.setVisitorBridge(new VisitorsBridge(Collections.singletonList(visitor), new ArrayList<>(), sonarComponents));
+    scanner.scan(files);
+
+    assertThat(sonarComponents.parsingThreads()).isEqualTo(3);
+    assertThat(visitedFiles).containsExactlyElementsOf(files);
+    // input files are only resolved by the analysis thread, parsing threads only read their content
+    assertThat(resolvingThreads).containsOnly(Thread.currentThread());
+    assertThat(sonarComponents.analysisErrors).hasSize(1);
+    assertThat(sonarComponents.analysisErrors.get(0).getKind()).isSameAs(AnalysisError.Kind.PARSE_ERROR);
+  }
+
   @Test
   public void should_report_analysis_error_in_sonarLint_context_withSQ_6_0() {
     JavaAstScanner scanner = defaultJavaAstScanner();
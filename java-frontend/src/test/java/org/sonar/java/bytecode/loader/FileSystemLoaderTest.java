@@ -77,6 +77,18 @@ public class FileSystemLoaderTest {
     loader.loadBytes("tags/TagName.class");
   }
 
+  @Test
+  public void testPackages() throws Exception {
+    FileSystemLoader loader = new FileSystemLoader(new File("src/test/files/bytecode/bin/"));
+    assertThat(loader.packages()).contains("", "tags", "properties").doesNotContain("notfound");
+
+    loader.close();
+
+    thrown.expect(IllegalStateException.class);
+    thrown.expectMessage("Loader closed");
+    loader.packages();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File dir = new File("src/test/files/bytecode/bin/");
@@ -88,6 +88,13 @@ public class JarLoaderTest {
     loader.loadBytes("META-INF/MANIFEST.MF");
   }
 
+  @Test
+  public void testPackages() throws Exception {
+    JarLoader loader = new JarLoader(new File("src/test/files/bytecode/lib/hello.jar"));
+    assertThat(loader.packages()).containsOnly("META-INF", "org/sonar/tests", "META-INF/maven/org.sonar.tests/no-tests");
+    loader.close();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File jar = new File("src/test/files/bytecode/lib/hello.jar");
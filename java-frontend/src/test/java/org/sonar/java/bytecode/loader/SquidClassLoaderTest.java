@@ -21,6 +21,7 @@ package org.sonar.java.bytecode.loader;
 
 import com.google.common.collect.Iterators;
 import java.io.File;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Collections;
@@ -169,6 +170,8 @@ public class SquidClassLoaderTest {
     classLoader = new SquidClassLoader(Arrays.asList(dir, dir));
     assertThat(classLoader.findResource("tags/TagName.class")).isNotNull();
     assertThat(classLoader.findResource("notfound")).isNull();
+    assertThat(classLoader.findResource("tags/notfound")).isNull();
+    assertThat(classLoader.findResource("unknown/package/TagName.class")).isNull();
   }
 
   @Test
@@ -195,7 +198,7 @@ public class SquidClassLoaderTest {
     classLoader.close();
 
     thrown.expect(IllegalStateException.class);
-    thrown.expectMessage("java.lang.IllegalStateException: zip file closed");
+    thrown.expectMessage("zip file closed");
     classLoader.getResource("org/sonar/tests/Hello.class");
   }
 
@@ -211,6 +214,18 @@ public class SquidClassLoaderTest {
     assertThat(classNode.name).isEqualTo("org/sonar/java/bytecode/loader/SquidClassLoaderTest");
   }
 
+  @Test
+  public void test_loading_class_from_jar_and_jdk() throws Exception {
+    classLoader = new SquidClassLoader(Collections.singletonList(new File("src/test/files/bytecode/lib/hello.jar")));
+    byte[] bytes = classLoader.getBytesForClass("org.sonar.tests.Hello");
+    try (InputStream is = classLoader.getResourceAsStream("org/sonar/tests/Hello.class")) {
+      assertThat(bytes).hasSize(460).isEqualTo(IOUtils.toByteArray(is));
+    }
+    assertThat(new ClassReader(bytes).getClassName()).isEqualTo("org/sonar/tests/Hello");
+    assertThat(classLoader.getBytesForClass("org.sonar.tests.Unknown")).isNull();
+    assertThat(new ClassReader(classLoader.getBytesForClass("java.lang.Object")).getClassName()).isEqualTo("java/lang/Object");
+  }
+
   @Test
   public void empty_classloader_should_not_find_bytes() {
     SquidClassLoader classLoader = new SquidClassLoader(Collections.emptyList());
@@ -179,6 +179,40 @@ public class AVLTreeTest {
     }
   }
 
+  @Test
+  public void hash_code_of_keys_is_computed_once_per_operation() {
+    int[] hashCodeCalls = {0};
+    List<Object> keys = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int hashCode = i % 50;
+      keys.add(new Object() {
+        @Override
+        public int hashCode() {
+          hashCodeCalls[0]++;
+          return hashCode;
+        }
+      });
+    }
+    AVLTree<Object, Object> t = AVLTree.create();
+    for (Object key : keys) {
+      t = t.add(key);
+    }
+    assertThat(hashCodeCalls[0]).isEqualTo(100);
+
+    hashCodeCalls[0] = 0;
+    for (Object key : keys) {
+      assertThat(t.get(key)).isSameAs(key);
+    }
+    assertThat(hashCodeCalls[0]).isEqualTo(100);
+
+    hashCodeCalls[0] = 0;
+    for (Object key : keys) {
+      t = t.remove(key);
+    }
+    assertThat(t.isEmpty()).isTrue();
+    assertThat(hashCodeCalls[0]).isEqualTo(100);
+  }
+
   @Test
   public void hashCode_and_equals_should_not_depend_on_order_of_construction() {
     Object o1 = new Key(21, "o1");
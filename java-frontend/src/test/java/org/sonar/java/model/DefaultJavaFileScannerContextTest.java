@@ -47,6 +47,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class DefaultJavaFileScannerContextTest {
 
@@ -246,6 +247,24 @@ public class DefaultJavaFileScannerContextTest {
     assertMessagePosition(reportedMessage, 2, 6, 3, 10);
   }
 
+  @Test
+  public void issues_on_suppressed_lines_are_not_created() {
+    ClassTree tree = (ClassTree) compilationUnitTree.types().get(0);
+    VariableTree firstMember = (VariableTree) tree.members().get(0);
+    VariableTree secondMember = (VariableTree) tree.members().get(1);
+    when(sonarComponents.isIssueSuppressed(JAVA_FILE, CHECK, 2)).thenReturn(true);
+    assertThat(context.isIssueSuppressed(CHECK, 2)).isTrue();
+    assertThat(context.isIssueSuppressed(CHECK, 3)).isFalse();
+
+    reportedMessage = null;
+    context.reportIssue(CHECK, firstMember.simpleName(), "msg");
+    context.reportIssue(CHECK, firstMember.simpleName(), secondMember.equalToken(), "msg");
+    assertThat(reportedMessage).isNull();
+
+    context.reportIssue(CHECK, secondMember.simpleName(), "msg");
+    assertThat(reportedMessage.getLine()).isEqualTo(3);
+  }
+
   private static void assertMessagePosition(AnalyzerMessage message, int startLine, int startColumn, int endLine, int endColumn) {
     TextSpan location = message.primaryLocation();
     assertThat(location.startLine).isEqualTo(startLine);
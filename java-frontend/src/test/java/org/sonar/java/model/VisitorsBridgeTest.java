@@ -44,6 +44,8 @@ import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 
@@ -103,6 +105,43 @@ public class VisitorsBridgeTest {
     );
   }
 
+  @Test
+  public void subscription_visitors_are_called_in_tree_order() {
+    List<String> events = new ArrayList<>();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(new IssuableSubscriptionVisitor() {
+      @Override
+      public List<Kind> nodesToVisit() {
+        return ImmutableList.of(Tree.Kind.CLASS, Tree.Kind.METHOD, Tree.Kind.TOKEN, Tree.Kind.TRIVIA);
+      }
+
+      @Override
+      public void visitNode(Tree tree) {
+        events.add("visit " + tree.kind());
+      }
+
+      @Override
+      public void leaveNode(Tree tree) {
+        events.add("leave " + tree.kind());
+      }
+
+      @Override
+      public void visitToken(SyntaxToken syntaxToken) {
+        events.add(syntaxToken.text());
+      }
+
+      @Override
+      public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+        events.add(syntaxTrivia.comment());
+      }
+    }), Lists.newArrayList(), null);
+    checkFile("A.java", "class A { void m() {} } // end", visitorsBridge);
+    assertThat(events).containsExactly(
+      "visit CLASS", "class", "A", "{",
+      "visit METHOD", "void", "m", "(", ")", "{", "}", "leave METHOD",
+      "}", "leave CLASS",
+      "", "// end");
+  }
+
   private static String contstructFileName(String... path) {
     String result = "";
     for (String s : path) {
@@ -24,10 +24,12 @@ import java.util.Collections;
 import org.junit.Test;
 import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.cfg.LiveVariables;
 import org.sonar.java.resolve.Flags;
 import org.sonar.java.resolve.JavaSymbol;
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.plugins.java.api.cfg.ControlFlowGraph;
+import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
@@ -129,6 +131,22 @@ public class MethodTreeImplTest {
     assertThat(method.cfg()).isSameAs(cfg);
   }
 
+  @Test
+  public void compute_live_variables() {
+    MethodTreeImpl methodWithoutBody = getUniqueMethod("interface A { void foo(int arg); }");
+    assertThat(methodWithoutBody.liveVariables()).isNull();
+    assertThat(methodWithoutBody.liveVariablesWithFields()).isNull();
+
+    MethodTreeImpl method = getUniqueMethod("class A { int foo(int arg) { return arg + f; } int f; }");
+    LiveVariables liveVariables = method.liveVariables();
+    assertThat(liveVariables).isNotNull();
+    assertThat(method.liveVariables()).isSameAs(liveVariables);
+    assertThat(liveVariables.getIn(method.cfg().entryBlock())).extracting(Symbol::name).containsExactly("arg");
+    LiveVariables liveVariablesWithFields = method.liveVariablesWithFields();
+    assertThat(method.liveVariablesWithFields()).isSameAs(liveVariablesWithFields);
+    assertThat(liveVariablesWithFields.getIn(method.cfg().entryBlock())).extracting(Symbol::name).containsOnly("arg", "f");
+  }
+
   @Test
   public void has_all_syntax_token() {
     MethodTreeImpl method = getUniqueMethod("class A { public void foo(int arg) throws Exception {} }");
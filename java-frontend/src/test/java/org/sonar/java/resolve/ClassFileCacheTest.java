@@ -0,0 +1,66 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.resolve;
+
+import com.google.common.collect.Lists;
+import java.io.File;
+import org.junit.Test;
+import org.objectweb.asm.tree.ClassNode;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.targets.HasInnerClass;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClassFileCacheTest {
+
+  private final ClassFileCache classFileCache = new ClassFileCache(new SquidClassLoader(Lists.newArrayList(new File("target/test-classes"), new File("target/classes"))));
+
+  @Test
+  public void class_files_are_read_once() {
+    ClassNode classNode = classFileCache.classNode(HasInnerClass.class.getName());
+    assertThat(classNode).isNotNull();
+    assertThat(classNode.name).isEqualTo("org/sonar/java/resolve/targets/HasInnerClass");
+    assertThat(classNode.methods).allMatch(methodNode -> methodNode.instructions.size() == 0);
+    assertThat(classFileCache.classNode(HasInnerClass.class.getName())).isSameAs(classNode);
+    assertThat(classFileCache.exists(HasInnerClass.class.getName())).isTrue();
+  }
+
+  @Test
+  public void unknown_classes() {
+    assertThat(classFileCache.exists("org.foo.Unknown")).isFalse();
+    assertThat(classFileCache.classNode("org.foo.Unknown")).isNull();
+    assertThat(classFileCache.exists("org.foo.Unknown")).isFalse();
+  }
+
+  @Test
+  public void cache_is_shared_by_completers() {
+    BytecodeCompleter completer1 = new BytecodeCompleter(classFileCache, new ParametrizedTypeCache());
+    new Symbols(completer1);
+    BytecodeCompleter completer2 = new BytecodeCompleter(classFileCache, new ParametrizedTypeCache());
+    new Symbols(completer2);
+
+    JavaSymbol.TypeJavaSymbol symbol1 = completer1.getClassSymbol(HasInnerClass.class.getName());
+    JavaSymbol.TypeJavaSymbol symbol2 = completer2.getClassSymbol(HasInnerClass.class.getName());
+    assertThat(symbol1).isNotSameAs(symbol2);
+    assertThat(symbol1.memberSymbols()).hasSameSizeAs(symbol2.memberSymbols());
+    assertThat(symbol2.getSuperclass().fullyQualifiedName()).isEqualTo("java.lang.Object");
+  }
+
+}
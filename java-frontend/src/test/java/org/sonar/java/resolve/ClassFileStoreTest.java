@@ -0,0 +1,105 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.resolve;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClassFileStoreTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void class_files_from_archives_are_reused_by_next_analysis() throws Exception {
+    File directory = temp.newFolder();
+    List<File> classpath = Collections.singletonList(copyOfHelloJar());
+
+    SquidClassLoader classLoader = new SquidClassLoader(classpath);
+    ClassFileStore store = ClassFileStore.load(directory, classpath, classLoader);
+    assertThat(store.storedClasses()).isEmpty();
+    ClassFileCache classFileCache = new ClassFileCache(classLoader, store);
+    assertThat(classFileCache.classNode("org.sonar.tests.Hello")).isNotNull();
+    assertThat(classFileCache.classNode("org.sonar.tests.Unknown")).isNull();
+    classFileCache.save();
+    classLoader.close();
+    assertThat(directory.listFiles()).hasSize(1);
+
+    classLoader = new SquidClassLoader(classpath);
+    store = ClassFileStore.load(directory, classpath, classLoader);
+    assertThat(store.storedClasses()).containsExactly("org.sonar.tests.Hello");
+    ClassReader classReader = store.classReader("org.sonar.tests.Hello");
+    assertThat(classReader).isNotNull();
+    assertThat(classReader.getClassName()).isEqualTo("org/sonar/tests/Hello");
+    assertThat(new ClassFileCache(classLoader, store).classNode("org.sonar.tests.Hello").methods).isNotEmpty();
+    classLoader.close();
+  }
+
+  @Test
+  public void store_is_discarded_when_archives_change() throws Exception {
+    File directory = temp.newFolder();
+    File jar = copyOfHelloJar();
+    List<File> classpath = Collections.singletonList(jar);
+
+    SquidClassLoader classLoader = new SquidClassLoader(classpath);
+    ClassFileCache classFileCache = new ClassFileCache(classLoader, ClassFileStore.load(directory, classpath, classLoader));
+    classFileCache.classNode("org.sonar.tests.Hello");
+    classFileCache.save();
+    classLoader.close();
+
+    assertThat(jar.setLastModified(jar.lastModified() - 10_000)).isTrue();
+    classLoader = new SquidClassLoader(classpath);
+    assertThat(ClassFileStore.load(directory, classpath, classLoader).storedClasses()).isEmpty();
+    classLoader.close();
+  }
+
+  @Test
+  public void corrupted_store_is_ignored() throws Exception {
+    File directory = temp.newFolder();
+    List<File> classpath = Collections.singletonList(copyOfHelloJar());
+    SquidClassLoader classLoader = new SquidClassLoader(classpath);
+    ClassFileCache classFileCache = new ClassFileCache(classLoader, ClassFileStore.load(directory, classpath, classLoader));
+    classFileCache.classNode("org.sonar.tests.Hello");
+    classFileCache.save();
+    Files.write(directory.listFiles()[0].toPath(), new byte[] {1, 2, 3});
+
+    ClassFileStore store = ClassFileStore.load(directory, classpath, classLoader);
+    assertThat(store.storedClasses()).isEmpty();
+    assertThat(store.classReader("org.sonar.tests.Hello")).isNotNull();
+    classLoader.close();
+  }
+
+  private File copyOfHelloJar() throws IOException {
+    File jar = new File(temp.newFolder(), "hello.jar");
+    Files.copy(new File("src/test/files/bytecode/lib/hello.jar").toPath(), jar.toPath());
+    return jar;
+  }
+
+}
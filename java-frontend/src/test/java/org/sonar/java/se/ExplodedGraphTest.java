@@ -54,6 +54,24 @@ public class ExplodedGraphTest {
     assertThat(child.parents()).hasSize(2);
   }
 
+  @Test
+  public void edges_are_kept_when_adding_parents() {
+    ExplodedGraph eg = new ExplodedGraph();
+    ExplodedGraph.Node child = eg.node(mockProgramPoint("child"), null);
+    ExplodedGraph.Node parent = eg.node(mockProgramPoint("parent"), null);
+    child.addParent(parent, null);
+    ExplodedGraph.Edge edge = child.edges().iterator().next();
+    assertThat(edge.yields()).isEmpty();
+    assertThat(child.parents()).containsExactly(parent);
+
+    ExplodedGraph.Node parent2 = eg.node(mockProgramPoint("parent2"), null);
+    child.addParent(parent2, null);
+    child.addParent(parent, null);
+    assertThat(child.edges()).hasSize(2).contains(edge);
+    assertThat(child.parents()).containsOnly(parent, parent2);
+    assertThat(child.parents()).first().isSameAs(child.parent());
+  }
+
   private ProgramPoint mockProgramPoint(String toString) {
     ProgramPoint mock = mock(ProgramPoint.class);
     when(mock.toString()).thenReturn(toString);
@@ -23,12 +23,17 @@ import com.google.common.reflect.ClassPath;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.resolve.JavaSymbol;
@@ -72,6 +77,9 @@ import static org.sonar.java.se.SETestUtils.createSymbolicExecutionVisitor;
 
 public class ExplodedGraphWalkerTest {
 
+  @Rule
+  public LogTester logTester = new LogTester();
+
   @Test
   public void seEngineTest() {
     JavaCheckVerifier.verify("src/test/files/se/SeEngineTest.java", seChecks());
@@ -150,10 +158,10 @@ public class ExplodedGraphWalkerTest {
 
               if (getNode) {
                 if (firstExceptionalNode == null) {
-                  firstExceptionalNode = workList.peekFirst();
+                  firstExceptionalNode = workList.peek();
                 }
                 assertThat(workList.size()).as("Should have created a new node in the graph for each of the exceptions").isEqualTo(workListSize + 1);
-                assertThat(workList.peekFirst().programState.peekValue()).as("Exceptional Symbolic Value should stay on the stack").isEqualTo(exceptionSV);
+                assertThat(workList.peek().programState.peekValue()).as("Exceptional Symbolic Value should stay on the stack").isEqualTo(exceptionSV);
                 tested[0]++;
               }
             };
@@ -203,7 +211,7 @@ public class ExplodedGraphWalkerTest {
               assertThat(workList.size()).isEqualTo(workListSize + 1);
               if (shouldEnqueueFalseBranch) {
                 assertThat(programPoints[1]).isNull();
-                programPoints[1] = workList.peekFirst().programPoint;
+                programPoints[1] = workList.peek().programPoint;
               }
             }
           };
@@ -256,6 +264,70 @@ public class ExplodedGraphWalkerTest {
     });
   }
 
+  @Test
+  public void test_time_budget_exceeded() throws Exception {
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/MaxSteps.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        try {
+          MethodTree methodTree = (MethodTree) tree;
+          ExplodedGraphWalker walker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
+          walker.setDeadline(System.nanoTime());
+          walker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+          fail("Time budget should have been exceeded");
+        } catch (ExplodedGraphWalker.TimeBudgetExceededException exception) {
+          assertThat(exception.getMessage()).startsWith("reached time budget after 64 steps for method");
+        }
+      }
+    });
+  }
+
+  @Test
+  public void exploration_strategies_compute_the_same_yields() throws Exception {
+    Map<ExplorationStrategy, Set<String>> yieldsByStrategy = new EnumMap<>(ExplorationStrategy.class);
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/ExplorationStrategies.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        for (ExplorationStrategy strategy : ExplorationStrategy.values()) {
+          ExplodedGraphWalker walker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
+          walker.setExplorationStrategy(strategy);
+          MethodBehavior methodBehavior = walker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+          assertThat(walker.revisitedStates).as("states reached again at a join point are not explored again").isPositive();
+          yieldsByStrategy.put(strategy, methodBehavior.yields().stream().map(MethodYield::toString).collect(Collectors.toSet()));
+        }
+      }
+    });
+    assertThat(yieldsByStrategy.get(ExplorationStrategy.DEPTH_FIRST)).isNotEmpty();
+    assertThat(yieldsByStrategy.get(ExplorationStrategy.BREADTH_FIRST)).isEqualTo(yieldsByStrategy.get(ExplorationStrategy.DEPTH_FIRST));
+    assertThat(yieldsByStrategy.get(ExplorationStrategy.TOPOLOGICAL)).isEqualTo(yieldsByStrategy.get(ExplorationStrategy.DEPTH_FIRST));
+
+    assertThat(ExplorationStrategy.fromName(" Topological")).isEqualTo(ExplorationStrategy.TOPOLOGICAL);
+    assertThat(ExplorationStrategy.fromName(null)).isEqualTo(ExplorationStrategy.DEPTH_FIRST);
+    assertThat(logTester.logs(LoggerLevel.WARN)).noneMatch(log -> log.startsWith("Unknown exploration strategy"));
+    assertThat(ExplorationStrategy.fromName("unknown")).isEqualTo(ExplorationStrategy.DEPTH_FIRST);
+    assertThat(logTester.logs(LoggerLevel.WARN)).contains("Unknown exploration strategy 'unknown', using DEPTH_FIRST");
+  }
+
+  @Test
+  public void states_differing_by_dead_symbols_are_merged() throws Exception {
+    List<Integer> mergedStates = new ArrayList<>();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/DeadSymbolsMerging.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        if (methodTree.block() == null) {
+          return;
+        }
+        ExplodedGraphWalker walker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
+        walker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+        mergedStates.add(walker.mergedStates);
+      }
+    });
+    assertThat(mergedStates).hasSize(1);
+    assertThat(mergedStates.get(0)).as("paths entering 'return 0' with different values of 'o'").isPositive();
+  }
+
   @Test
   public void test_maximum_steps_reached_with_issue() throws Exception {
     JavaCheckVerifier.verify("src/test/files/se/MaxStepsWithIssue.java", new UnclosedResourcesCheck());
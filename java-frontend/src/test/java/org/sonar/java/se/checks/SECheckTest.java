@@ -0,0 +1,52 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.checks;
+
+import org.junit.Test;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SECheckTest {
+
+  @Test
+  public void issues_are_suppressed_only_during_exploration_of_the_file() {
+    SECheck check = new SECheck() {
+    };
+    Tree tree = mock(Tree.class);
+    SyntaxToken token = mock(SyntaxToken.class);
+    when(token.line()).thenReturn(3);
+    when(tree.firstToken()).thenReturn(token);
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    when(context.isIssueSuppressed(check, 3)).thenReturn(true);
+    assertThat(check.isIssueSuppressed(tree)).isFalse();
+
+    check.setFileContext(context);
+    assertThat(check.isIssueSuppressed(tree)).isTrue();
+    assertThat(check.isIssueSuppressed(mock(Tree.class))).as("tree without token").isFalse();
+
+    check.setFileContext(null);
+    assertThat(check.isIssueSuppressed(tree)).isFalse();
+  }
+}
@@ -70,6 +70,15 @@ public class ConstraintsByDomainTest {
     assertThat(c1).isSameAs(c2);
   }
 
+  @Test
+  public void equal_constraints_are_the_same_instance() {
+    ConstraintsByDomain c1 = ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL).put(BooleanConstraint.TRUE);
+    ConstraintsByDomain c2 = ConstraintsByDomain.empty().put(BooleanConstraint.FALSE).put(ObjectConstraint.NOT_NULL).put(BooleanConstraint.TRUE);
+    assertThat(c1).isSameAs(c2);
+    assertThat(c2.remove(BooleanConstraint.class)).isSameAs(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL));
+    assertThat(c1).isNotSameAs(c1.put(BooleanConstraint.FALSE));
+  }
+
   @Test
   public void test_forEach() {
     ConstraintsByDomain constraints = ConstraintsByDomain.empty();
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -357,6 +358,24 @@ public class RelationalSymbolicValueTest {
     assertThat(transitive).containsOnly(relationalSV(Tree.Kind.EQUAL_TO, a, c), relationalSV(Tree.Kind.EQUAL_TO, b, d), relationalSV(Tree.Kind.EQUAL_TO, a, d));
   }
 
+  @Test
+  public void unrelated_relations_do_not_limit_transitive_relations() {
+    Set<RelationalSymbolicValue> knownRelations = new HashSet<>();
+    List<SymbolicValue> chain = new ArrayList<>();
+    chain.add(new SymbolicValue());
+    for (int i = 0; i < 20; i++) {
+      chain.add(new SymbolicValue());
+      knownRelations.add(new RelationalSymbolicValue(EQUAL, chain.get(i), chain.get(i + 1)));
+    }
+    for (int i = 0; i < 6_000; i++) {
+      knownRelations.add(new RelationalSymbolicValue(RelationalSymbolicValue.Kind.LESS_THAN, new SymbolicValue(), new SymbolicValue()));
+    }
+    SymbolicValue x = new SymbolicValue();
+    Set<RelationalSymbolicValue> transitive = new RelationalSymbolicValue(EQUAL, x, chain.get(0)).transitiveRelations(knownRelations);
+    assertThat(transitive).contains(new RelationalSymbolicValue(EQUAL, x, chain.get(20)));
+    assertThat(transitive).allMatch(RelationalSymbolicValue::isEquality);
+  }
+
   @Test
   public void test_constraints_are_copied_over_transitive_relations() throws Exception {
     ProgramState ps = ProgramState.EMPTY_STATE;
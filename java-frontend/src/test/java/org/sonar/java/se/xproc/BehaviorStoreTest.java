@@ -0,0 +1,190 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import javax.tools.ToolProvider;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.java.se.SETestUtils;
+import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.java.se.SETestUtils.createSymbolicExecutionVisitor;
+import static org.sonar.java.se.SETestUtils.getMethodBehavior;
+
+public class BehaviorStoreTest {
+
+  private static final String REQUIRE_NON_NULL = "java.util.Objects#requireNonNull(Ljava/lang/Object;)Ljava/lang/Object;";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void behaviors_used_by_other_files_do_not_depend_on_file_order() {
+    String signature = "org.sonar.java.bytecode.se.testdata.FinalBytecodeTestClass#publicMethod(Ljava/lang/String;)Z";
+    // declaring file not analyzed yet
+    MethodBehavior fromBytecode = behaviorCache(SETestUtils.CLASSLOADER, new BehaviorStore(SETestUtils.CLASSLOADER)).get(signature);
+
+    // declaring file analyzed first: its behavior computed from source is not used by the other files
+    SymbolicExecutionVisitor sev = createSymbolicExecutionVisitor("src/test/java/org/sonar/java/bytecode/se/testdata/FinalBytecodeTestClass.java");
+    MethodBehavior fromSource = getMethodBehavior(sev, "publicMethod");
+    assertThat(fromSource.signature()).isEqualTo(signature);
+    sev.behaviorCache.cleanup();
+    assertThat(sev.behaviorCache.peek(signature)).isNull();
+    MethodBehavior afterDeclaringFile = sev.behaviorCache.get(signature);
+
+    assertThat(afterDeclaringFile).isNotSameAs(fromSource);
+    assertThat(afterDeclaringFile.isComplete()).isTrue();
+    assertThat(new HashSet<>(afterDeclaringFile.yields())).isEqualTo(new HashSet<>(fromBytecode.yields()));
+  }
+
+  @Test
+  public void incomplete_behaviors_are_not_kept() {
+    BehaviorStore store = new BehaviorStore(new SquidClassLoader(Collections.emptyList()));
+    MethodBehavior behavior = new MethodBehavior("A#foo()V");
+    behavior.visited();
+    store.add(behavior);
+    assertThat(store.get("A#foo()V")).isNull();
+  }
+
+  @Test
+  public void behaviors_are_reused_by_next_analysis() throws Exception {
+    File directory = temp.newFolder();
+    List<File> classpath = Collections.emptyList();
+
+    SquidClassLoader classLoader = new SquidClassLoader(classpath);
+    BehaviorStore store = BehaviorStore.load(directory, classpath, classLoader);
+    assertThat(store.storedSignatures()).isEmpty();
+    BehaviorCache behaviorCache = behaviorCache(classLoader, store);
+    MethodBehavior behavior = behaviorCache.get(REQUIRE_NON_NULL);
+    assertThat(behavior.isComplete()).isTrue();
+    // class file of the method can not be found: the summary could not be validated by the next analysis
+    MethodBehavior sourceBehavior = getMethodBehavior(createSymbolicExecutionVisitor("src/test/resources/se/MethodYields.java"), "method");
+    store.add(sourceBehavior);
+    behaviorCache.save();
+    classLoader.close();
+    assertThat(directory.listFiles()).hasSize(1);
+
+    classLoader = new SquidClassLoader(classpath);
+    store = BehaviorStore.load(directory, classpath, classLoader);
+    assertThat(store.storedSignatures()).contains(REQUIRE_NON_NULL).doesNotContain(sourceBehavior.signature());
+    MethodBehavior storedBehavior = behaviorCache(classLoader, store).get(REQUIRE_NON_NULL);
+    assertThat(storedBehavior).isNotSameAs(behavior);
+    assertThat(storedBehavior.isComplete()).isTrue();
+    assertThat(new HashSet<>(storedBehavior.yields())).isEqualTo(new HashSet<>(behavior.yields()));
+    assertThat(store.storedSignatures()).doesNotContain(REQUIRE_NON_NULL);
+    classLoader.close();
+  }
+
+  @Test
+  public void behaviors_are_not_reused_when_the_class_of_an_invoked_method_changes() throws Exception {
+    String signature = "A#foo(Ljava/lang/Object;)Ljava/lang/Object;";
+    File directory = temp.newFolder();
+    File classes = temp.newFolder();
+    compile(classes, "A", "class A { static Object foo(Object o) { return B.check(o); } }");
+    compile(classes, "B", "class B { static Object check(Object o) { if (o == null) { throw new IllegalStateException(); } return o; } }");
+    List<File> classpath = Collections.singletonList(classes);
+
+    SquidClassLoader classLoader = new SquidClassLoader(classpath);
+    BehaviorCache behaviorCache = behaviorCache(classLoader, BehaviorStore.load(directory, classpath, classLoader));
+    MethodBehavior behavior = behaviorCache.get(signature);
+    assertThat(behavior.isComplete()).isTrue();
+    assertThat(behavior.dependencies()).contains("B");
+    behaviorCache.save();
+    classLoader.close();
+
+    classLoader = new SquidClassLoader(classpath);
+    BehaviorStore store = BehaviorStore.load(directory, classpath, classLoader);
+    MethodBehavior storedBehavior = store.get(signature);
+    assertThat(storedBehavior).isNotNull();
+    assertThat(storedBehavior.dependencies()).contains("B");
+    classLoader.close();
+
+    // class of the method unchanged, but the behavior of the method it invokes changed
+    compile(classes, "B", "class B { static Object check(Object o) { return o; } }");
+    classLoader = new SquidClassLoader(classpath);
+    store = BehaviorStore.load(directory, classpath, classLoader);
+    assertThat(store.storedSignatures()).contains(signature);
+    assertThat(store.get(signature)).isNull();
+    classLoader.close();
+  }
+
+  @Test
+  public void corrupted_store_is_ignored() throws Exception {
+    File directory = temp.newFolder();
+    List<File> classpath = Collections.emptyList();
+    SquidClassLoader classLoader = new SquidClassLoader(classpath);
+    BehaviorCache behaviorCache = behaviorCache(classLoader, BehaviorStore.load(directory, classpath, classLoader));
+    behaviorCache.get(REQUIRE_NON_NULL);
+    behaviorCache.save();
+    File[] files = directory.listFiles();
+    assertThat(files).hasSize(1);
+
+    Files.write(files[0].toPath(), new byte[] {1, 2, 3});
+    assertThat(BehaviorStore.load(directory, classpath, classLoader).storedSignatures()).isEmpty();
+    classLoader.close();
+  }
+
+  @Test
+  public void precomputed_behaviors_are_used_by_analyses() throws Exception {
+    File summaries = new File(temp.newFolder(), "summaries.bin");
+    List<File> classpath = Collections.emptyList();
+    SquidClassLoader classLoader = new SquidClassLoader(classpath);
+    assertThat(BehaviorSummaries.knownSignatures(classLoader)).contains(REQUIRE_NON_NULL).allMatch(BehaviorCache::isKnownSignature);
+    assertThat(BehaviorSummaries.write(summaries, classpath)).isPositive();
+    assertThat(summaries).isFile();
+
+    BehaviorStore store = BehaviorStore.load(null, classpath, classLoader, summaries);
+    assertThat(store.storedSignatures()).isEmpty();
+    assertThat(store.precomputedSignatures()).contains(REQUIRE_NON_NULL);
+    MethodBehavior behavior = behaviorCache(classLoader, store).get(REQUIRE_NON_NULL);
+    assertThat(behavior.isComplete()).isTrue();
+    assertThat(behavior.yields()).isNotEmpty();
+    assertThat(store.precomputedSignatures()).doesNotContain(REQUIRE_NON_NULL);
+    assertThat(store.peek(REQUIRE_NON_NULL)).isSameAs(behavior);
+    classLoader.close();
+  }
+
+  private void compile(File classes, String className, String source) throws Exception {
+    File file = new File(temp.newFolder(), className + ".java");
+    Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+    assertThat(ToolProvider.getSystemJavaCompiler().run(null, null, null, "-source", "1.8", "-target", "1.8", "-cp", classes.getPath(),
+      "-d", classes.getPath(), file.getPath())).isZero();
+  }
+
+  private static BehaviorCache behaviorCache(SquidClassLoader classLoader, BehaviorStore store) {
+    CompilationUnitTree tree = (CompilationUnitTree) JavaParser.createParser().parse("class A {}");
+    BehaviorCache behaviorCache = new BehaviorCache(classLoader, true, store);
+    behaviorCache.setFileContext(null, SemanticModel.createFor(tree, classLoader));
+    return behaviorCache;
+  }
+
+}
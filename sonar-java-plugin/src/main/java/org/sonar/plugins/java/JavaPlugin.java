@@ -24,6 +24,7 @@ import org.sonar.api.Plugin;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.SonarRuntime;
 import org.sonar.api.config.PropertyDefinition;
+import org.sonar.api.config.PropertyType;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.utils.Version;
 import org.sonar.java.AnalysisWarningsWrapper;
@@ -64,6 +65,73 @@ public class JavaPlugin implements Plugin {
         .name("Collect analysis error")
         .description("when set to true, if an exception is thrown by the analyzer, feedback will be collected and sent to server")
         .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.PARSING_THREADS_KEY)
+        .defaultValue("1")
+        .type(PropertyType.INTEGER)
+        .hidden()
+        .name("Parsing threads")
+        .description("number of threads parsing source files ahead of the analysis, which itself stays on a single thread, 1 means files are parsed by the analysis thread")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.CLASS_FILE_CACHE_KEY)
+        .defaultValue("false")
+        .type(PropertyType.BOOLEAN)
+        .hidden()
+        .name("Class file cache")
+        .description("when set to true, library class files read during the analysis are stored and reused by the next analyses")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.CLASS_FILE_CACHE_PATH_KEY)
+        .hidden()
+        .name("Class file cache directory")
+        .description("directory of the class file cache, defaults to a directory in the working directory of the analysis")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.INCREMENTAL_ANALYSIS_KEY)
+        .defaultValue("false")
+        .type(PropertyType.BOOLEAN)
+        .hidden()
+        .name("Incremental analysis")
+        .description("when set to true, rules are not executed again on files which did not change since the previous analysis")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.BEHAVIOR_STORE_KEY)
+        .defaultValue("false")
+        .type(PropertyType.BOOLEAN)
+        .hidden()
+        .name("Method behavior store")
+        .description("when set to true, method behaviors computed by symbolic execution are stored and reused by the next analyses")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.BEHAVIOR_SUMMARIES_KEY)
+        .hidden()
+        .name("Precomputed method behaviors")
+        .description("file of library method behaviors precomputed by symbolic execution of their bytecode")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.PROFILING_KEY)
+        .defaultValue("false")
+        .type(PropertyType.BOOLEAN)
+        .hidden()
+        .name("Analysis profiling")
+        .description("when set to true, time and memory spent in each phase, rule and file are reported in the working directory")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.FILE_TIME_BUDGET_KEY)
+        .defaultValue("0")
+        .type(PropertyType.INTEGER)
+        .hidden()
+        .name("File time budget")
+        .description("time in milliseconds after which symbolic execution and rules are skipped on a file, 0 means no limit")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.METHOD_TIME_BUDGET_KEY)
+        .defaultValue("0")
+        .type(PropertyType.INTEGER)
+        .hidden()
+        .name("Method time budget")
+        .description("time in milliseconds after which symbolic execution of a method is stopped, 0 means no limit")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.EXPLORATION_STRATEGY_KEY)
+        .defaultValue("depth_first")
+        .type(PropertyType.SINGLE_SELECT_LIST)
+        .options("depth_first", "breadth_first", "topological")
+        .hidden()
+        .name("Symbolic execution exploration strategy")
+        .description("order in which symbolic execution explores the paths of a method")
+        .build());
       builder.add(JavaMetricDefinition.class);
 
       ExternalReportExtensions.define(context);
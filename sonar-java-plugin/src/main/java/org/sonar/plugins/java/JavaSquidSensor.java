@@ -24,7 +24,6 @@ import java.io.File;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 import org.sonar.api.batch.DependedUpon;
 import org.sonar.api.batch.DependsUpon;
 import org.sonar.api.batch.Phase;
@@ -89,20 +88,20 @@ public class JavaSquidSensor implements Sensor {
     sonarComponents.registerTestCheckClasses(CheckList.REPOSITORY_KEY, CheckList.getJavaTestChecks());
     Measurer measurer = new Measurer(fs, context, noSonarFilter);
     JavaSquid squid = new JavaSquid(getJavaVersion(), isXFileEnabled(), sonarComponents, measurer, javaResourceLocator, postAnalysisIssueFilter, sonarComponents.checkClasses());
-    squid.scan(getSourceFiles(), getTestFiles());
+    List<InputFile> sourceFiles = javaInputFiles(InputFile.Type.MAIN);
+    List<InputFile> testFiles = javaInputFiles(InputFile.Type.TEST);
+    sonarComponents.registerInputFiles(sourceFiles);
+    sonarComponents.registerInputFiles(testFiles);
+    squid.scan(toFile(sourceFiles), toFile(testFiles));
     sonarComponents.saveAnalysisErrors();
   }
 
-  private Collection<File> getSourceFiles() {
-    return toFile(fs.inputFiles(fs.predicates().and(fs.predicates().hasLanguage(Java.KEY), fs.predicates().hasType(InputFile.Type.MAIN))));
+  private List<InputFile> javaInputFiles(InputFile.Type type) {
+    return ImmutableList.copyOf(fs.inputFiles(fs.predicates().and(fs.predicates().hasLanguage(Java.KEY), fs.predicates().hasType(type))));
   }
 
-  private Collection<File> getTestFiles() {
-    return toFile(fs.inputFiles(fs.predicates().and(fs.predicates().hasLanguage(Java.KEY), fs.predicates().hasType(InputFile.Type.TEST))));
-  }
-
-  private static Collection<File> toFile(Iterable<InputFile> inputFiles) {
-    return StreamSupport.stream(inputFiles.spliterator(), false).map(InputFile::file).collect(Collectors.toList());
+  private static Collection<File> toFile(List<InputFile> inputFiles) {
+    return inputFiles.stream().map(InputFile::file).collect(Collectors.toList());
   }
 
   private JavaVersion getJavaVersion() {